@@ -0,0 +1,87 @@
+package benchmark;
+
+import chess.Bitbases;
+import chess.Bitboards;
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessPiece;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures building the endgame bitbases, and looking a position up in them. Probes cycle
+ * through a fixed set of random king and queen, rook or pawn positions so each one is a
+ * different table entry.
+ */
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BitbaseBenchmark {
+
+    private static final int POSITION_COUNT = 1024;
+
+    private Path directory;
+    private Bitbases bitbases;
+    private final ChessBoard[] boards = new ChessBoard[POSITION_COUNT];
+    private final ChessGame.TeamColor[] turns = new ChessGame.TeamColor[POSITION_COUNT];
+    private int next;
+
+    @Setup
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("bitbases");
+        bitbases = Bitbases.openOrGenerate(directory);
+
+        Random random = new Random(19);
+        ChessPiece.PieceType[] types = {ChessPiece.PieceType.QUEEN, ChessPiece.PieceType.ROOK, ChessPiece.PieceType.PAWN};
+        for (int i = 0; i < POSITION_COUNT; i++) {
+            int whiteKing = random.nextInt(64);
+            int blackKing;
+            int piece;
+            do {
+                blackKing = random.nextInt(64);
+                piece = 8 + random.nextInt(48);
+            } while (blackKing == whiteKing || piece == whiteKing || piece == blackKing);
+            boards[i] = new ChessBoard();
+            boards[i].addPiece(Bitboards.position(whiteKing),
+                    new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KING));
+            boards[i].addPiece(Bitboards.position(blackKing),
+                    new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KING));
+            boards[i].addPiece(Bitboards.position(piece),
+                    new ChessPiece(ChessGame.TeamColor.WHITE, types[random.nextInt(types.length)]));
+            turns[i] = random.nextBoolean() ? ChessGame.TeamColor.WHITE : ChessGame.TeamColor.BLACK;
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        try (var files = Files.list(directory)) {
+            for (Path file : files.toList()) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(directory);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public Bitbases.Outcome probe() {
+        int index = next++ & (POSITION_COUNT - 1);
+        return bitbases.probe(boards[index], turns[index]);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 1)
+    @Measurement(iterations = 5)
+    public void generate() throws IOException {
+        Bitbases.generate(directory);
+    }
+}
@@ -0,0 +1,92 @@
+package benchmark;
+
+import chess.*;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for the rules code the server runs on every move.
+ * Each operation covers every piece of the side to move, not a single square.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ChessCoreBenchmark {
+
+    @Param({"start", "middlegame", "endgame"})
+    public String position;
+
+    private ChessGame game;
+    private ChessBoard board;
+    private final List<ChessPosition> ownSquares = new ArrayList<>();
+    private ChessMove firstMove;
+
+    @Setup
+    public void setUp() {
+        game = Positions.load(position);
+        board = game.getBoard();
+        for (int row = 1; row <= 8; row++) {
+            for (int col = 1; col <= 8; col++) {
+                ChessPosition square = new ChessPosition(row, col);
+                ChessPiece piece = board.getPiece(square);
+                if (piece != null && piece.getTeamColor() == game.getTeamTurn()) {
+                    ownSquares.add(square);
+                    if (firstMove == null && !game.validMoves(square).isEmpty()) {
+                        firstMove = game.validMoves(square).iterator().next();
+                    }
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    public void pieceMoves(Blackhole blackhole) {
+        for (ChessPosition square : ownSquares) {
+            blackhole.consume(board.getPiece(square).pieceMoves(board, square));
+        }
+    }
+
+    @Benchmark
+    public void validMoves(Blackhole blackhole) {
+        for (ChessPosition square : ownSquares) {
+            blackhole.consume(game.validMoves(square));
+        }
+    }
+
+    @Benchmark
+    public void makeMove() throws InvalidMoveException {
+        game.makeMove(firstMove);
+        game.undoMove();
+    }
+
+    @Benchmark
+    public boolean isInCheckmate() {
+        return game.isInCheckmate(game.getTeamTurn());
+    }
+
+    @Benchmark
+    public boolean isInStalemate() {
+        return game.isInStalemate(game.getTeamTurn());
+    }
+
+    @Benchmark
+    public GameStatus evaluateStatus() throws InvalidMoveException {
+        // evaluateStatus caches by position key, so change the position to measure the real work
+        game.makeMove(firstMove);
+        GameStatus status = game.evaluateStatus();
+        game.undoMove();
+        return status;
+    }
+
+    @Benchmark
+    public ChessBoard boardClone() {
+        return board.clone();
+    }
+}
@@ -0,0 +1,41 @@
+package benchmark;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import engine.Evaluation;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the cost of scoring one position from the board's running sums against
+ * recounting every piece, which is what the search paid at each leaf before.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EvaluationBenchmark {
+
+    @Param({"start", "middlegame", "endgame"})
+    public String position;
+
+    private ChessBoard board;
+
+    @Setup
+    public void setUp() {
+        board = Positions.load(position).getBoard();
+    }
+
+    @Benchmark
+    public int incremental() {
+        return Evaluation.evaluate(board, ChessGame.TeamColor.WHITE);
+    }
+
+    @Benchmark
+    public int fromScratch() {
+        return Evaluation.evaluateFromScratch(board, ChessGame.TeamColor.WHITE);
+    }
+}
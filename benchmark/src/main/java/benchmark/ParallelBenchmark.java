@@ -0,0 +1,109 @@
+package benchmark;
+
+import chess.BatchAnalysis;
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.Perft;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for perft and batch analysis spread across a ForkJoinPool. The counters give
+ * nodes or positions per second in total and per thread; the per-thread rate staying level as
+ * the thread count grows means the work is scaling with the cores. Pass -p threads=... to
+ * match the machine, since more threads than cores only measures the scheduler.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ParallelBenchmark {
+
+    private static final int BATCH_POSITIONS = 1 << 14;
+
+    @Param({"start", "middlegame", "endgame"})
+    public String position;
+
+    @Param({"1", "2", "4"})
+    public int threads;
+
+    @Param({"5"})
+    public int depth;
+
+    private ChessGame game;
+    private ForkJoinPool pool;
+    private ChessGame[] batch;
+
+    /**
+     * Counts the work done, reported by JMH alongside the benchmark score
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class WorkCounter {
+        public long total;
+        public long perThread;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            total = 0;
+            perThread = 0;
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        game = Positions.load(position);
+        pool = new ForkJoinPool(threads);
+
+        // Positions from random games starting at the benchmark position
+        Random random = new Random(21);
+        batch = new ChessGame[BATCH_POSITIONS];
+        for (int i = 0; i < BATCH_POSITIONS; i++) {
+            ChessGame played = game.clone();
+            for (int ply = random.nextInt(40); ply > 0 && !played.evaluateStatus().isGameOver(); ply--) {
+                List<ChessMove> moves = new ArrayList<>(played.legalMoves(played.getTeamTurn()));
+                played.doMove(moves.get(random.nextInt(moves.size())));
+            }
+            batch[i] = played;
+        }
+    }
+
+    /**
+     * Forgets the statuses worked out by the last invocation, so each one analyzes afresh
+     */
+    @Setup(Level.Invocation)
+    public void clearStatuses() {
+        for (ChessGame position : batch) {
+            position.setTeamTurn(position.getTeamTurn());
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public long perft(WorkCounter counter) {
+        long nodes = Perft.parallelPerft(game, depth, pool);
+        counter.total += nodes;
+        counter.perThread += nodes / threads;
+        return nodes;
+    }
+
+    @Benchmark
+    public void analyzeBatch(WorkCounter counter, Blackhole blackhole) {
+        BatchAnalysis.analyze(Arrays.stream(batch), pool, BatchAnalysis.DEFAULT_BATCH_SIZE, blackhole::consume);
+        counter.total += BATCH_POSITIONS;
+        counter.perThread += BATCH_POSITIONS / threads;
+    }
+}
@@ -0,0 +1,86 @@
+package benchmark;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessPiece;
+import chess.ChessPosition;
+
+import java.util.Map;
+
+/**
+ * Positions shared by the benchmarks
+ */
+public final class Positions {
+
+    private static final Map<Character, ChessPiece.PieceType> CHAR_TO_TYPE = Map.of(
+            'p', ChessPiece.PieceType.PAWN,
+            'n', ChessPiece.PieceType.KNIGHT,
+            'r', ChessPiece.PieceType.ROOK,
+            'q', ChessPiece.PieceType.QUEEN,
+            'k', ChessPiece.PieceType.KING,
+            'b', ChessPiece.PieceType.BISHOP);
+
+    private static final String MIDDLEGAME = """
+            |r| | | | |r|k| |
+            | |p|p| |q|p|p|p|
+            |p| |n|p| |n| | |
+            | | |b| |p| |B| |
+            | | |B| |P| |b| |
+            |P| |N|P| |N| | |
+            | |P|P| |Q|P|P|P|
+            |R| | | | |R|K| |
+            """;
+
+    private static final String ENDGAME = """
+            | | | | | | | | |
+            | | |p| | | | | |
+            | | | |p| | | | |
+            |K|P| | | | | |r|
+            | |R| | | |p| |k|
+            | | | | | | | | |
+            | | | | |P| |P| |
+            | | | | | | | | |
+            """;
+
+    private Positions() {}
+
+    /**
+     * @param name "start", "middlegame" or "endgame"
+     * @return a new game set up at that position with white to move
+     */
+    public static ChessGame load(String name) {
+        ChessGame game = new ChessGame();
+        switch (name) {
+            case "start" -> { }
+            case "middlegame" -> game.setBoard(loadBoard(MIDDLEGAME));
+            case "endgame" -> game.setBoard(loadBoard(ENDGAME));
+            default -> throw new IllegalArgumentException("Unknown position: " + name);
+        }
+        return game;
+    }
+
+    private static ChessBoard loadBoard(String boardText) {
+        var board = new ChessBoard();
+        int row = 8;
+        int column = 1;
+        for (var c : boardText.toCharArray()) {
+            switch (c) {
+                case '\n' -> {
+                    column = 1;
+                    row--;
+                }
+                case ' ' -> column++;
+                case '|' -> {
+                }
+                default -> {
+                    ChessGame.TeamColor color = Character.isLowerCase(c) ? ChessGame.TeamColor.BLACK
+                            : ChessGame.TeamColor.WHITE;
+                    board.addPiece(new ChessPosition(row, column),
+                            new ChessPiece(color, CHAR_TO_TYPE.get(Character.toLowerCase(c))));
+                    column++;
+                }
+            }
+        }
+        return board;
+    }
+}
@@ -0,0 +1,71 @@
+package benchmark;
+
+import chess.ChessGame;
+import engine.Search;
+import engine.SearchLimits;
+import engine.SearchResult;
+import engine.TranspositionTable;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for the computer opponent's search. Throughput mode reports searches and
+ * nodes per second; average time mode reports the time taken to reach each depth. Comparing
+ * the thread counts shows the speedup from parallel search; the helper threads are capped
+ * by chess.engine.maxHelperThreads, so raise it with -jvmArgs to try more threads than cores.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SearchBenchmark {
+
+    @Param({"start", "middlegame", "endgame"})
+    public String position;
+
+    @Param({"4", "5"})
+    public int depth;
+
+    @Param({"1", "2", "4"})
+    public int threads;
+
+    private ChessGame game;
+    private final TranspositionTable table = new TranspositionTable(16);
+
+    /**
+     * Counts the positions searched, reported by JMH alongside the benchmark score
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class NodeCounter {
+        public long nodes;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            nodes = 0;
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        game = Positions.load(position);
+    }
+
+    /**
+     * Each search starts from an empty table, so it measures a cold start
+     */
+    @Setup(Level.Invocation)
+    public void clearTable() {
+        table.clear();
+    }
+
+    @Benchmark
+    public SearchResult searchToDepth(NodeCounter counter) {
+        SearchResult result = new Search(game, table).search(SearchLimits.ofDepth(depth).withThreads(threads));
+        counter.nodes += result.nodes();
+        return result;
+    }
+}
@@ -0,0 +1,79 @@
+package benchmark;
+
+import chess.ChessGame;
+import chess.GameCodec;
+import com.google.gson.Gson;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for the Gson round trips a game goes through on every move
+ * (database writes and LOAD_GAME messages), against writing and reading the position as FEN
+ * and packing the game with the binary codec the database now stores
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializationBenchmark {
+
+    @Param({"start", "middlegame"})
+    public String position;
+
+    private final Gson gson = new Gson();
+    private ChessGame game;
+    private String json;
+    private String fen;
+    private byte[] packed;
+
+    @Setup
+    public void setUp() {
+        game = Positions.load(position);
+        json = gson.toJson(game);
+        fen = game.toFen();
+        packed = GameCodec.encode(game);
+    }
+
+    @Benchmark
+    public String gsonToJson() {
+        return gson.toJson(game);
+    }
+
+    @Benchmark
+    public ChessGame gsonFromJson() {
+        return gson.fromJson(json, ChessGame.class);
+    }
+
+    @Benchmark
+    public ChessGame gsonRoundTrip() {
+        return gson.fromJson(gson.toJson(game), ChessGame.class);
+    }
+
+    @Benchmark
+    public String fenWrite() {
+        return game.toFen();
+    }
+
+    @Benchmark
+    public ChessGame fenParse() {
+        return ChessGame.fromFen(fen);
+    }
+
+    @Benchmark
+    public ChessGame fenRoundTrip() {
+        return ChessGame.fromFen(game.toFen());
+    }
+
+    @Benchmark
+    public byte[] codecEncode() {
+        return GameCodec.encode(game);
+    }
+
+    @Benchmark
+    public ChessGame codecDecode() {
+        return GameCodec.decode(packed);
+    }
+}
@@ -76,6 +76,7 @@ public class ChessClient implements NotificationHandler {
                     case "list" -> listGames();
                     case "join" -> joinGame(tokens);
                     case "observe" -> observeGame(tokens);
+                    case "computer" -> seatComputer(tokens);
                     default -> help();
                 };
             } else if (replLoopNum == 3) { // In Game
@@ -85,6 +86,7 @@ public class ChessClient implements NotificationHandler {
                     case "highlight" -> highlight(tokens);
                     case "move" -> makeMove(tokens);
                     case "resign" -> resign();
+                    case "hint" -> bookHint();
                     default -> help();
                 };
             } else { // Pre-login
@@ -110,7 +112,8 @@ public class ChessClient implements NotificationHandler {
                     create <GAME NAME> - Create a new chess game
                     list - View current chess games
                     join <GAME ID> <TEAM COLOR (white/black)> - Join an existing game
-                    observe <GAME ID> - View an existing game""";
+                    observe <GAME ID> - View an existing game
+                    computer <GAME ID> <TEAM COLOR (white/black)> - Have the computer play a team""";
         } else if (replLoopNum == 3) {
             return """
                     Valid commands:
@@ -119,6 +122,7 @@ public class ChessClient implements NotificationHandler {
                     leave - Leave the game
                     move <START POSITION> <END POSITION> <PROMOTION PIECE (optional)> - Moves a piece
                     resign - Forfeit the game
+                    hint - Ask for a move from the opening book
                     highlight <PIECE POSITION> - Highlights legal moves for a piece""";
         } else {
             return """
@@ -238,6 +242,36 @@ public class ChessClient implements NotificationHandler {
         }
     }
 
+    private String seatComputer(String[] params) throws ResponseException {
+        if (params.length < 3) {
+            throw new ResponseException(400, "Missing Game ID or team color");
+        } else if (!params[2].equals("white") && !params[2].equals("black")) {
+            throw new ResponseException(400, "Team color must be \"white\" or \"black\"");
+        }
+
+        int gameID;
+        try {
+            gameID = Integer.parseInt(params[1]);
+        } catch (NumberFormatException e) {
+            throw new ResponseException(400, "Game ID must be a number");
+        }
+        ChessGame.TeamColor color = params[2].equals("white") ? ChessGame.TeamColor.WHITE :
+                ChessGame.TeamColor.BLACK;
+
+        try {
+            facade.seatComputer(new JoinRequest(color, gameID), authToken);
+            return "The computer is playing " + params[2] + " in game " + gameID + "\n";
+        } catch (ResponseException e) {
+            if (e.getStatusCode() == 403) {
+                // team taken, or the computer already plays the other team (403)
+                throw new ResponseException(403, "Team already filled, or the computer is already playing");
+            } else {
+                // no game with id (400)
+                throw new ResponseException(400, "No game exists with that ID");
+            }
+        }
+    }
+
     private String observeGame(String[] params) throws ResponseException {
         if (params.length < 2) {
             throw new ResponseException(400, "Missing Game ID");
@@ -481,6 +515,12 @@ public class ChessClient implements NotificationHandler {
         return "";
     }
 
+    private String bookHint() throws ResponseException {
+        ws.sendBookHint(authToken, currentGameID);
+
+        return "";
+    }
+
     public void updateGame(ChessGame game) {
         currentGame = game;
     }
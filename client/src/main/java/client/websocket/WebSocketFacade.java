@@ -103,4 +103,14 @@ public class WebSocketFacade extends Endpoint {
         }
     }
 
+    // Book Hint
+    public void sendBookHint(String authToken, int gameID) throws ResponseException {
+        try {
+            BookHintCommand command = new BookHintCommand(authToken, gameID);
+            this.session.getBasicRemote().sendText(gson.toJson(command));
+        } catch (IOException e) {
+            throw new ResponseException(500, e.getMessage());
+        }
+    }
+
 }
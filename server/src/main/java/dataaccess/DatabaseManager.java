@@ -92,6 +92,9 @@ public class DatabaseManager {
                     else if (param instanceof Integer p) {
                         ps.setInt(i + 1, p);
                     }
+                    else if (param instanceof byte[] p) {
+                        ps.setBytes(i + 1, p);
+                    }
                     else if (param == null) {
                         ps.setNull(i + 1, NULL);
                     }
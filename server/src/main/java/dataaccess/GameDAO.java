@@ -1,6 +1,7 @@
 package dataaccess;
 
 import chess.ChessGame;
+import chess.ChessMove;
 import exception.ResponseException;
 import model.GameData;
 
@@ -19,4 +20,17 @@ public interface GameDAO {
 
     void madeMove (int gameID, ChessGame game) throws DataAccessException, ResponseException;
 
+    /**
+     * Saves a game after a move was played in it. Stores that keep a log of moves can save
+     * just the move; the default saves the whole game.
+     *
+     * @param gameID the game
+     * @param game the game with the move made
+     * @param move the move just made
+     */
+    default void madeMove (int gameID, ChessGame game, ChessMove move) throws DataAccessException,
+            ResponseException {
+        madeMove(gameID, game);
+    }
+
 }
@@ -1,17 +1,45 @@
 package dataaccess;
 
 import chess.ChessGame;
+import chess.ChessMove;
+import chess.GameCodec;
+import chess.Move;
 import com.google.gson.Gson;
 import exception.ResponseException;
 import model.GameData;
 
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.HashMap;
 
 
+/**
+ * Stores games in MySQL. By default every move rewrites the saved game. In move log mode
+ * each move is instead appended to gameMoves as one small row, and the game in gameData is
+ * only rewritten as a snapshot every so many plies (and when the game ends or is resigned).
+ * Reading a game decodes its snapshot and replays the moves logged since, so the log also
+ * keeps every game's full move history.
+ */
 public class MySqlGameDAO implements GameDAO {
 
+    // Plies between snapshots in move log mode, or 0 to rewrite the game on every move
+    private final int snapshotPlies;
+
     public MySqlGameDAO() {
-        //constructor
+        this(0);
+    }
+
+    /**
+     * @param snapshotPlies 0 to rewrite the whole game on every move, or how many plies to
+     *                      log between snapshots
+     */
+    public MySqlGameDAO(int snapshotPlies) {
+        if (snapshotPlies < 0) {
+            throw new IllegalArgumentException("Snapshot interval must not be negative: " + snapshotPlies);
+        }
+        this.snapshotPlies = snapshotPlies;
         try {
             configureDatabase();
         } catch (ResponseException | DataAccessException e) {
@@ -19,6 +47,10 @@ public class MySqlGameDAO implements GameDAO {
         }
     }
 
+    // Games are stored packed by GameCodec in binaryGame. Rows written before that have only
+    // jsonGame, which is read as a fallback and cleared the next time the game is saved.
+    // snapshotPly is the ply number of the saved game; moves logged from that ply on are
+    // replayed on top of it.
     private final String[] createStatements = {
             """
             CREATE TABLE IF NOT EXISTS  gameData (
@@ -26,21 +58,89 @@ public class MySqlGameDAO implements GameDAO {
               whiteUsername VARCHAR(255) DEFAULT NULL,
               blackUsername VARCHAR(255) DEFAULT NULL,
               gameName VARCHAR(255) NOT NULL,
-              jsonGame TEXT NOT NULL,
+              binaryGame BLOB DEFAULT NULL,
+              jsonGame TEXT DEFAULT NULL,
+              snapshotPly INT NOT NULL DEFAULT 0,
               PRIMARY KEY (gameID)
             );
+            """,
+            """
+            CREATE TABLE IF NOT EXISTS  gameMoves (
+              gameID INT NOT NULL,
+              ply INT NOT NULL,
+              move SMALLINT NOT NULL,
+              PRIMARY KEY (gameID, ply)
+            );
             """
     };
 
+    // Brings a gameData table created before a column existed up to date: each column, and
+    // the statement that adds it
+    private final String[][] migrateStatements = {
+            {"binaryGame", """
+            ALTER TABLE gameData
+              ADD COLUMN binaryGame BLOB DEFAULT NULL AFTER gameName,
+              MODIFY jsonGame TEXT DEFAULT NULL;
+            """},
+            {"snapshotPly", """
+            ALTER TABLE gameData
+              ADD COLUMN snapshotPly INT NOT NULL DEFAULT 0 AFTER jsonGame;
+            """}
+    };
+
     private void configureDatabase() throws ResponseException, DataAccessException {
         DatabaseManager.configureDatabaseHelper(createStatements);
+        for (String[] migration : migrateStatements) {
+            if (!hasColumn(migration[0])) {
+                DatabaseManager.configureDatabaseHelper(new String[] {migration[1]});
+            }
+        }
+    }
+
+    private boolean hasColumn(String column) throws DataAccessException {
+        try (var conn = DatabaseManager.getConnection()) {
+            var statement = "SELECT COUNT(*) FROM information_schema.COLUMNS "
+                    + "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'gameData' AND COLUMN_NAME = ?";
+            try (var ps = conn.prepareStatement(statement)) {
+                ps.setString(1, column);
+                try (var rs = ps.executeQuery()) {
+                    return rs.next() && rs.getInt(1) > 0;
+                }
+            }
+        } catch (SQLException e) {
+            throw new DataAccessException(String.format("Error: Unable to read schema: %s", e.getMessage()));
+        }
+    }
+
+    private static ChessGame readGame(ResultSet rs) throws SQLException {
+        byte[] binaryGame = rs.getBytes("binaryGame");
+        if (binaryGame != null) {
+            return GameCodec.decode(binaryGame);
+        }
+        return new Gson().fromJson(rs.getString("jsonGame"), ChessGame.class);
+    }
+
+    /**
+     * Plays the moves logged since a game's snapshot onto it
+     */
+    private static void replayMoves(Connection conn, int gameID, int snapshotPly, ChessGame game) throws SQLException {
+        var statement = "SELECT move FROM gameMoves WHERE gameID=? AND ply>=? ORDER BY ply";
+        try (var ps = conn.prepareStatement(statement)) {
+            ps.setInt(1, gameID);
+            ps.setInt(2, snapshotPly);
+            try (var rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    game.doMove(rs.getInt("move"));
+                }
+            }
+        }
     }
 
     @Override
     public void clear() throws ResponseException {
         //clear game data
-        var statement = "TRUNCATE gameData";
-        DatabaseManager.executeUpdate(statement);
+        DatabaseManager.executeUpdate("TRUNCATE gameData");
+        DatabaseManager.executeUpdate("TRUNCATE gameMoves");
     }
 
     @Override
@@ -48,12 +148,14 @@ public class MySqlGameDAO implements GameDAO {
         //return a game
         try (var conn = DatabaseManager.getConnection()) {
             var statement =
-                    "SELECT gameID, whiteUsername, blackUsername, gameName, jsonGame FROM gameData WHERE gameID=?";
+                    "SELECT gameID, whiteUsername, blackUsername, gameName, binaryGame, jsonGame, snapshotPly "
+                    + "FROM gameData WHERE gameID=?";
             try (var ps = conn.prepareStatement(statement)) {
                 ps.setInt(1, gameID);
                 try (var rs = ps.executeQuery()) {
                     if (rs.next()) {
-                        ChessGame game = new Gson().fromJson(rs.getString("jsonGame"), ChessGame.class);
+                        ChessGame game = readGame(rs);
+                        replayMoves(conn, gameID, rs.getInt("snapshotPly"), game);
                         return new GameData(rs.getInt("gameID"),
                                 rs.getString("whiteUsername"), rs.getString("blackUsername"),
                                 rs.getString("gameName"), game);
@@ -71,14 +173,27 @@ public class MySqlGameDAO implements GameDAO {
         //list games
         var result = new ArrayList<GameData>();
         try (var conn = DatabaseManager.getConnection()) {
-            var statement = "SELECT gameID, whiteUsername, blackUsername, gameName, jsonGame FROM gameData";
+            var statement = "SELECT gameID, whiteUsername, blackUsername, gameName, binaryGame, jsonGame FROM gameData";
+            var games = new HashMap<Integer, ChessGame>();
             try (var ps = conn.prepareStatement(statement)) {
                 try (var rs = ps.executeQuery()) {
                     while (rs.next()) {
+                        ChessGame game = readGame(rs);
+                        games.put(rs.getInt("gameID"), game);
                         result.add(new GameData(rs.getInt("gameID"),
                                 rs.getString("whiteUsername"), rs.getString("blackUsername"),
                                 rs.getString("gameName"),
-                                new Gson().fromJson(rs.getString("jsonGame"), ChessGame.class)));
+                                game));
+                    }
+                }
+            }
+            // every game's moves since its snapshot, in one query
+            statement = "SELECT m.gameID, m.move FROM gameMoves m JOIN gameData g ON m.gameID = g.gameID "
+                    + "WHERE m.ply >= g.snapshotPly ORDER BY m.gameID, m.ply";
+            try (var ps = conn.prepareStatement(statement)) {
+                try (var rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        games.get(rs.getInt("gameID")).doMove(rs.getInt("move"));
                     }
                 }
             }
@@ -96,9 +211,10 @@ public class MySqlGameDAO implements GameDAO {
     public void createGame(GameData data) throws ResponseException {
         //insert a game
         var statement =
-                "INSERT INTO gameData (gameID, whiteUsername, blackUsername, gameName, jsonGame) VALUES (?, ?, ?, ?, ?)";
+                "INSERT INTO gameData (gameID, whiteUsername, blackUsername, gameName, binaryGame, snapshotPly) "
+                + "VALUES (?, ?, ?, ?, ?, ?)";
         DatabaseManager.executeUpdate(statement, data.gameID(), data.whiteUsername(), data.blackUsername(),
-                data.gameName(), new Gson().toJson(data.game()));
+                data.gameName(), GameCodec.encode(data.game()), data.game().getPlyNumber());
     }
 
     @Override
@@ -120,7 +236,25 @@ public class MySqlGameDAO implements GameDAO {
     @Override
     public void madeMove(int gameID, ChessGame game) throws DataAccessException, ResponseException {
         String statement;
-        statement = "UPDATE gameData SET jsonGame = ? WHERE gameID = ?";
-        DatabaseManager.executeUpdate(statement, new Gson().toJson(game), gameID);
+        statement = "UPDATE gameData SET binaryGame = ?, jsonGame = NULL, snapshotPly = ? WHERE gameID = ?";
+        DatabaseManager.executeUpdate(statement, GameCodec.encode(game), game.getPlyNumber(), gameID);
+    }
+
+    /**
+     * In move log mode, appends the move to gameMoves and only saves a snapshot of the game
+     * every snapshotPlies plies or when the game is over. The move is logged first, so if
+     * the snapshot fails the game still reads back correctly from the older snapshot.
+     */
+    @Override
+    public void madeMove(int gameID, ChessGame game, ChessMove move) throws DataAccessException, ResponseException {
+        if (snapshotPlies == 0) {
+            madeMove(gameID, game);
+            return;
+        }
+        var statement = "INSERT INTO gameMoves (gameID, ply, move) VALUES (?, ?, ?)";
+        DatabaseManager.executeUpdate(statement, gameID, game.getPlyNumber() - 1, Move.of(move));
+        if (game.getGameOver() || game.getPlyNumber() % snapshotPlies == 0) {
+            madeMove(gameID, game);
+        }
     }
 }
@@ -17,4 +17,9 @@ public class JoinGameHandler {
         JoinRequest joinRequest = new Gson().fromJson(jsonBody, JoinRequest.class);
         gameService.joinGame(joinRequest, authToken);
     }
+
+    public void seatComputer(String jsonBody, String authToken) throws ResponseException, DataAccessException {
+        JoinRequest joinRequest = new Gson().fromJson(jsonBody, JoinRequest.class);
+        gameService.seatComputer(joinRequest, authToken);
+    }
 }
@@ -1,12 +1,17 @@
 package server;
 
+import chess.Bitbases;
 import dataaccess.*;
+import engine.OpeningBook;
 import exception.ResponseException;
 import handlers.*;
 import server.websocket.WebSocketHandler;
 import services.*;
 import spark.*;
 
+import java.io.IOException;
+import java.nio.file.Path;
+
 public class Server {
     private final ClearHandler clearHandler;
     private final CreateGameHandler createGameHandler;
@@ -16,11 +21,13 @@ public class Server {
     private final LogoutHandler logoutHandler;
     private final RegisterHandler registerHandler;
     private final WebSocketHandler webSocketHandler;
+    private final EngineService engineService;
 
     public Server() {
         UserDAO userDAO = new MySqlUserDAO();
         AuthDAO authDAO = new MySqlAuthDAO();
-        GameDAO gameDAO = new MySqlGameDAO();
+        // -Dchess.db.snapshotPlies=N logs each move and saves the whole game every N plies
+        GameDAO gameDAO = new MySqlGameDAO(Integer.getInteger("chess.db.snapshotPlies", 0));
 
         GameService gameService = new GameService(authDAO, gameDAO);
         UserService userService = new UserService(userDAO, authDAO);
@@ -33,7 +40,39 @@ public class Server {
         this.logoutHandler = new LogoutHandler(userService);
         this.registerHandler = new RegisterHandler(userService);
 
-        this.webSocketHandler = new WebSocketHandler(gameDAO, authDAO);
+        // Computer opponent settings: -Dchess.engine.threads=N -Dchess.engine.moveMillis=N
+        // -Dchess.engine.searchThreads=N -Dchess.engine.tableMegabytes=N -Dchess.engine.book=PATH
+        // -Dchess.engine.bitbases=DIRECTORY
+        Bitbases.install(openBitbases(System.getProperty("chess.engine.bitbases")));
+        this.engineService = new EngineService(
+                Integer.getInteger("chess.engine.threads", Runtime.getRuntime().availableProcessors()),
+                Long.getLong("chess.engine.moveMillis", 1000),
+                Integer.getInteger("chess.engine.searchThreads", 1),
+                Integer.getInteger("chess.engine.tableMegabytes", 64),
+                openBook(System.getProperty("chess.engine.book")));
+        this.webSocketHandler = new WebSocketHandler(gameDAO, authDAO, engineService);
+    }
+
+    private static OpeningBook openBook(String path) {
+        if (path == null) {
+            return null;
+        }
+        try {
+            return new OpeningBook(Path.of(path));
+        } catch (IOException | IllegalArgumentException e) {
+            throw new IllegalStateException("Could not open opening book " + path, e);
+        }
+    }
+
+    private static Bitbases openBitbases(String directory) {
+        if (directory == null) {
+            return null;
+        }
+        try {
+            return Bitbases.openOrGenerate(Path.of(directory));
+        } catch (IOException | IllegalArgumentException e) {
+            throw new IllegalStateException("Could not open endgame bitbases in " + directory, e);
+        }
     }
 
     public int run(int desiredPort) {
@@ -51,6 +90,7 @@ public class Server {
         Spark.post("/game", this::createGame);
         Spark.get("/game", this::listGames);
         Spark.put("/game", this::joinGame);
+        Spark.put("/game/computer", this::seatComputer);
 
         //This line initializes the server and can be removed once you have a functioning endpoint 
         Spark.init();
@@ -60,6 +100,7 @@ public class Server {
     }
 
     public void stop() {
+        engineService.shutdown();
         Spark.stop();
         Spark.awaitStop();
     }
@@ -156,4 +197,17 @@ public class Server {
         return "";
     }
 
+    private Object seatComputer(Request req, Response res) {
+        try {
+            joinGameHandler.seatComputer(req.body(), req.headers("authorization"));
+
+        } catch (ResponseException e) {
+            return exceptionHandler(e, res);
+        } catch (DataAccessException e) {
+            return exceptionHandler(new ResponseException(500, "Error: " + e.getMessage()), res);
+        }
+        res.status(200);
+        return "";
+    }
+
 }
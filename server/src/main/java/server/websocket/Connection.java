@@ -14,6 +14,16 @@ public class Connection {
     }
 
     public void send(String msg) throws IOException {
-        session.getRemote().sendString(msg);
+        send(session, msg);
+    }
+
+    /**
+     * Sends a message to a session, whether or not it has a connection yet
+     */
+    public static void send(Session session, String msg) throws IOException {
+        // engine moves are sent from their own threads, and a session allows one send at a time
+        synchronized (session) {
+            session.getRemote().sendString(msg);
+        }
     }
 }
\ No newline at end of file
@@ -7,22 +7,45 @@ import websocket.messages.ServerMessage;
 import websocket.messages.ServerMessageTypeAdapter;
 
 import java.io.IOException;
-import java.util.ArrayList;
-import java.util.Collection;
 import java.util.concurrent.ConcurrentHashMap;
 
 public class ConnectionManager {
     public final ConcurrentHashMap<String, Connection> connections = new ConcurrentHashMap<>();
 
-    public void add(String username, Session session) {
+    // The connections watching each game, so a broadcast only visits that game's audience.
+    // A game's entry is dropped when its last connection leaves. Read by engine threads as
+    // well as websocket threads.
+    private final ConcurrentHashMap<Integer, ConcurrentHashMap<Session, Connection>> gameAudiences =
+            new ConcurrentHashMap<>();
+
+    public void remove(String username) {
+        connections.remove(username);
+    }
+
+    /**
+     * Adds a connection and sends it the broadcasts for a game
+     */
+    public void subscribe(int gameID, String username, Session session) {
         var connection = new Connection(username, session);
         connections.put(username, connection);
-
-//        System.out.print("DEBUG: added a connection for " + username + "\n");
+        // compute runs atomically with unsubscribe dropping an empty audience
+        gameAudiences.compute(gameID, (id, audience) -> {
+            if (audience == null) {
+                audience = new ConcurrentHashMap<>();
+            }
+            audience.put(session, connection);
+            return audience;
+        });
     }
 
-    public void remove(String username) {
-        connections.remove(username);
+    /**
+     * Stops sending a game's broadcasts to a session
+     */
+    public void unsubscribe(int gameID, Session session) {
+        gameAudiences.computeIfPresent(gameID, (id, audience) -> {
+            audience.remove(session);
+            return audience.isEmpty() ? null : audience;
+        });
     }
 
     public void sendOneUser(Session session, ServerMessage notification) throws IOException {
@@ -39,25 +62,35 @@ public class ConnectionManager {
         }
     }
 
-    public void broadcastGame(Collection<Session> excludeList, ServerMessage notification) throws IOException {
+    /**
+     * Sends a message to every connection watching a game. The message is serialized once
+     * for the whole audience.
+     *
+     * @param gameID the game
+     * @param exclude a session not to send to, or null to send to all of them
+     * @param notification the message
+     */
+    public void broadcastGame(int gameID, Session exclude, ServerMessage notification) throws IOException {
+        var audience = gameAudiences.get(gameID);
+        if (audience == null) {
+            return ;
+        }
+
         GsonBuilder builder = new GsonBuilder();
         builder.registerTypeAdapter(ServerMessage.class, new ServerMessageTypeAdapter());
         Gson gson = builder.create();
+        String json = gson.toJson(notification);
 
-        var removeList = new ArrayList<Connection>();
-        for (var c : connections.values()) {
+        for (var c : audience.values()) {
             if (c.session.isOpen()) {
-                if (!excludeList.contains(c.session)) {
-                    c.send(gson.toJson(notification));
+                if (c.session != exclude) {
+                    c.send(json);
                 }
             } else {
-                removeList.add(c);
+                // Clean up any connections that were left open.
+                unsubscribe(gameID, c.session);
+                connections.remove(c.username, c);
             }
         }
-
-        // Clean up any connections that were left open.
-        for (var c : removeList) {
-            connections.remove(c.username);
-        }
     }
 }
\ No newline at end of file
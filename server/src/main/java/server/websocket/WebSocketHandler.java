@@ -1,6 +1,8 @@
 package server.websocket;
 
 import chess.ChessGame;
+import chess.ChessMove;
+import chess.GameStatus;
 
 import chess.InvalidMoveException;
 import com.google.gson.Gson;
@@ -11,17 +13,21 @@ import dataaccess.DataAccessException;
 import dataaccess.GameDAO;
 import model.AuthData;
 import model.GameData;
+import services.EngineService;
 
 import org.eclipse.jetty.websocket.api.Session;
 import org.eclipse.jetty.websocket.api.annotations.OnWebSocketMessage;
 import org.eclipse.jetty.websocket.api.annotations.WebSocket;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import websocket.commands.*;
 import websocket.messages.*;
 
 import java.io.IOException;
-import java.util.HashSet;
 import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 @WebSocket
 public class WebSocketHandler {
@@ -29,14 +35,25 @@ public class WebSocketHandler {
     private final ConnectionManager connections = new ConnectionManager();
     private final GameDAO gameDAO;
     private final AuthDAO authDAO;
+    private final EngineService engineService;
 
-    public record AudienceAssignment(int gameID, Session session) {}
+    private static final Logger LOG = LoggerFactory.getLogger(WebSocketHandler.class);
 
-    private final HashSet<AudienceAssignment> gameAudiences = new HashSet<>();
+    // Held around each read-change-write of a game so a resignation, a player's move and the
+    // computer's move on other threads cannot overwrite each other. Games share a fixed set of
+    // locks by ID, so the set does not grow with every game ID a client sends.
+    private static final int GAME_LOCK_COUNT = 64;
+    private final Object[] gameLocks = new Object[GAME_LOCK_COUNT];
+    // Games the engine is already searching, so each game has at most one search running
+    private final Set<Integer> computerSearches = ConcurrentHashMap.newKeySet();
 
-    public WebSocketHandler(GameDAO gameDAO, AuthDAO authDAO) {
+    public WebSocketHandler(GameDAO gameDAO, AuthDAO authDAO, EngineService engineService) {
         this.gameDAO = gameDAO;
         this.authDAO = authDAO;
+        this.engineService = engineService;
+        for (int i = 0; i < GAME_LOCK_COUNT; i++) {
+            gameLocks[i] = new Object();
+        }
     }
 
     @OnWebSocketMessage
@@ -51,6 +68,7 @@ public class WebSocketHandler {
             case LEAVE -> leave(((LeaveCommand) command), session);
             case RESIGN -> resign(((ResignCommand) command), session);
             case MAKE_MOVE -> makeMove(((MakeMoveCommand) command), session);
+            case BOOK_HINT -> bookHint(((BookHintCommand) command), session);
         }
     }
 
@@ -86,8 +104,7 @@ public class WebSocketHandler {
         try {
             AuthData authData = authDAO.getAuth(command.getAuthToken());
 
-            connections.add(authData.username(), session);
-            gameAudiences.add(new AudienceAssignment(command.getGameID(), session));
+            connections.subscribe(command.getGameID(), authData.username(), session);
 
             GameData gameData = gameDAO.getGame(command.getGameID());
             var loadGame = new LoadGameMessage(ServerMessage.ServerMessageType.LOAD_GAME, gameData.game());
@@ -103,6 +120,11 @@ public class WebSocketHandler {
             var notification = new NotificationMessage(message);
 
             excludeAndBroadcast(session, command.getGameID(), notification, true);
+            // observers never start the engine, and a search already running is not repeated
+            if (authData.username().equals(gameData.whiteUsername())
+                    || authData.username().equals(gameData.blackUsername())) {
+                requestComputerMove(gameData);
+            }
 
         } catch (Exception e) {
             sendErrorMessage("Error: Game not accessible", session);
@@ -110,20 +132,13 @@ public class WebSocketHandler {
 
     }
 
+    private Object gameLock(int gameID) {
+        return gameLocks[Math.floorMod(gameID, GAME_LOCK_COUNT)];
+    }
+
     private void excludeAndBroadcast(Session session, int gameID, ServerMessage notification, boolean excludeSelf)
             throws IOException {
-        HashSet<Session> excludeList = new HashSet<>();
-
-        if (excludeSelf) {
-            excludeList.add(session);
-        }
-
-        for (AudienceAssignment user : gameAudiences) {
-            if (user.gameID != gameID) {
-                excludeList.add(user.session);
-            }
-        }
-        connections.broadcastGame(excludeList, notification);
+        connections.broadcastGame(gameID, excludeSelf ? session : null, notification);
     }
 
     public void leave(LeaveCommand command, Session session) {
@@ -133,20 +148,22 @@ public class WebSocketHandler {
             }
 
             AuthData authData = authDAO.getAuth(command.getAuthToken());
-            GameData gameData = gameDAO.getGame(command.getGameID());
             String username = authData.username();
 
-            if (username.equals(gameData.whiteUsername()) || username.equals(gameData.blackUsername())) {
-                ChessGame.TeamColor color = username.equals(gameData.whiteUsername()) ? ChessGame.TeamColor.WHITE :
-                        ChessGame.TeamColor.BLACK;
-                gameDAO.updateGame(command.getGameID(), color, null);
+            synchronized (gameLock(command.getGameID())) {
+                GameData gameData = gameDAO.getGame(command.getGameID());
+                if (username.equals(gameData.whiteUsername()) || username.equals(gameData.blackUsername())) {
+                    ChessGame.TeamColor color = username.equals(gameData.whiteUsername()) ?
+                            ChessGame.TeamColor.WHITE : ChessGame.TeamColor.BLACK;
+                    gameDAO.updateGame(command.getGameID(), color, null);
+                }
             }
 
             String message = username + " left the game";
             var notification = new NotificationMessage(message);
             excludeAndBroadcast(session, command.getGameID(), notification, true);
             connections.remove(username);
-            gameAudiences.remove(new AudienceAssignment(command.getGameID(), session));
+            connections.unsubscribe(command.getGameID(), session);
 
         } catch (Throwable e) {
             return ;
@@ -159,24 +176,27 @@ public class WebSocketHandler {
         }
 
         try {
-            GameData gameData = gameDAO.getGame(command.getGameID());
             AuthData authData = authDAO.getAuth(command.getAuthToken());
 
-            if (gameData.game().getGameOver()) {
-                sendErrorMessage("Error: Game is already over", session);
-                return ;
-            } else if (!authData.username().equals(gameData.whiteUsername()) &&
-                    !authData.username().equals(gameData.blackUsername())) {
-                sendErrorMessage("Error: Observers cannot resign", session);
-                return ;
-            }
+            synchronized (gameLock(command.getGameID())) {
+                GameData gameData = gameDAO.getGame(command.getGameID());
 
-            gameData.game().setGameOver(true);
-            gameDAO.madeMove(command.getGameID(), gameData.game());
+                if (gameData.game().getGameOver()) {
+                    sendErrorMessage("Error: Game is already over", session);
+                    return ;
+                } else if (!authData.username().equals(gameData.whiteUsername()) &&
+                        !authData.username().equals(gameData.blackUsername())) {
+                    sendErrorMessage("Error: Observers cannot resign", session);
+                    return ;
+                }
 
-            String message = authData.username() + " has resigned. Game over.";
-            var notification = new NotificationMessage(message);
-            excludeAndBroadcast(session, command.getGameID(), notification, false);
+                gameData.game().setGameOver(true);
+                gameDAO.madeMove(command.getGameID(), gameData.game());
+
+                String message = authData.username() + " has resigned. Game over.";
+                var notification = new NotificationMessage(message);
+                excludeAndBroadcast(session, command.getGameID(), notification, false);
+            }
 
         } catch (Exception e) {
             sendErrorMessage("Error: Game not accessible", session);
@@ -189,33 +209,39 @@ public class WebSocketHandler {
         }
 
         try {
-            GameData gameData = gameDAO.getGame(command.getGameID());
             AuthData authData = authDAO.getAuth(command.getAuthToken());
+            GameData gameData;
 
-            if (gameData == null) {
-                sendErrorMessage("Error: invalid game ID", session);
-            }
+            synchronized (gameLock(command.getGameID())) {
+                gameData = gameDAO.getGame(command.getGameID());
 
-            if (!checkCanMove(authData, gameData, session)) {
-                return ;
-            }
+                if (gameData == null) {
+                    sendErrorMessage("Error: invalid game ID", session);
+                    return ;
+                }
 
-            gameData.game().makeMove(command.getMove());
-            String checkResponse = checkGameOver(gameData);
-            gameDAO.madeMove(command.getGameID(), gameData.game());
+                if (!checkCanMove(authData, gameData, session)) {
+                    return ;
+                }
 
-            String message = authData.username() + " moved " + command.getMove().getStartPosition() + " to " +
-                    command.getMove().getEndPosition();
-            var notification = new NotificationMessage(message);
-            excludeAndBroadcast(session, command.getGameID(), notification, true);
+                gameData.game().makeMove(command.getMove());
+                String checkResponse = checkGameOver(gameData);
+                gameDAO.madeMove(command.getGameID(), gameData.game(), command.getMove());
 
-            var loadGame = new LoadGameMessage(ServerMessage.ServerMessageType.LOAD_GAME, gameData.game());
-            excludeAndBroadcast(session, command.getGameID(), loadGame, false);
+                String message = authData.username() + " moved " + command.getMove().getStartPosition() + " to " +
+                        command.getMove().getEndPosition();
+                var notification = new NotificationMessage(message);
+                excludeAndBroadcast(session, command.getGameID(), notification, true);
 
-            if (checkResponse != null) {
-                var checkNotification = new NotificationMessage(checkResponse);
-                excludeAndBroadcast(session, command.getGameID(), checkNotification, false);
+                var loadGame = new LoadGameMessage(ServerMessage.ServerMessageType.LOAD_GAME, gameData.game());
+                excludeAndBroadcast(session, command.getGameID(), loadGame, false);
+
+                if (checkResponse != null) {
+                    var checkNotification = new NotificationMessage(checkResponse);
+                    excludeAndBroadcast(session, command.getGameID(), checkNotification, false);
+                }
             }
+            requestComputerMove(gameData);
 
         } catch (DataAccessException | IOException e) {
             sendErrorMessage("Error: Game not accessible", session);
@@ -226,6 +252,109 @@ public class WebSocketHandler {
         }
     }
 
+    public void bookHint(BookHintCommand command, Session session) {
+        if (checkAuthInvalid(command.getAuthToken(), session)) {
+            return ;
+        }
+
+        try {
+            GameData gameData = gameDAO.getGame(command.getGameID());
+            if (gameData == null) {
+                sendErrorMessage("Error: invalid game ID", session);
+                return ;
+            }
+
+            ChessMove move = engineService.bookMove(gameData.game());
+            String message = move == null ? "No book move for this position." :
+                    "Book move: " + move.getStartPosition() + " to " + move.getEndPosition();
+            connections.sendOneUser(session, new NotificationMessage(message));
+
+        } catch (Exception e) {
+            sendErrorMessage("Error: Game not accessible", session);
+        }
+    }
+
+    /**
+     * Starts the engine thinking if the computer is seated as the side to move and is not
+     * already thinking about this game. The move is played when the search finishes, on the
+     * engine's thread, without holding up this one.
+     */
+    private void requestComputerMove(GameData gameData) {
+        ChessGame game = gameData.game();
+        String player = game.getTeamTurn() == ChessGame.TeamColor.WHITE ? gameData.whiteUsername() :
+                gameData.blackUsername();
+        if (game.getGameOver() || !EngineService.USERNAME.equals(player)) {
+            return ;
+        }
+        int gameID = gameData.gameID();
+        if (!computerSearches.add(gameID)) {
+            return ;
+        }
+        long positionKey = game.getPositionKey();
+        engineService.chooseMove(game).whenComplete((move, error) -> {
+            try {
+                if (error != null) {
+                    reportComputerFailure(gameID, error);
+                } else {
+                    makeComputerMove(gameID, positionKey, move);
+                }
+            } finally {
+                computerSearches.remove(gameID);
+            }
+        });
+    }
+
+    private void makeComputerMove(int gameID, long positionKey, ChessMove move) {
+        if (move == null) {
+            return ;
+        }
+
+        // the computer only holds one seat, so after its move it is never to move again
+        try {
+            synchronized (gameLock(gameID)) {
+                GameData gameData = gameDAO.getGame(gameID);
+                ChessGame game = gameData.game();
+
+                // the game may have been resigned or moved on while the engine was thinking
+                if (game.getGameOver() || game.getPositionKey() != positionKey) {
+                    return ;
+                }
+
+                game.makeMove(move);
+                String checkResponse = checkGameOver(gameData);
+                gameDAO.madeMove(gameID, game, move);
+
+                String message = EngineService.USERNAME + " moved " + move.getStartPosition() + " to " +
+                        move.getEndPosition();
+                excludeAndBroadcast(null, gameID, new NotificationMessage(message), false);
+                excludeAndBroadcast(null, gameID,
+                        new LoadGameMessage(ServerMessage.ServerMessageType.LOAD_GAME, game), false);
+
+                if (checkResponse != null) {
+                    excludeAndBroadcast(null, gameID, new NotificationMessage(checkResponse), false);
+                }
+            }
+
+        } catch (Throwable e) {
+            reportComputerFailure(gameID, e);
+        }
+    }
+
+    /**
+     * Logs a failed computer move and tells everyone in the game, who would otherwise wait
+     * for a move that never comes
+     */
+    private void reportComputerFailure(int gameID, Throwable error) {
+        LOG.error("Computer could not move in game {}", gameID, error);
+        try {
+            var errorMessage = new ErrorMessage(ServerMessage.ServerMessageType.ERROR,
+                    "Error: the computer could not make its move");
+            excludeAndBroadcast(null, gameID, errorMessage, false);
+        } catch (IOException e) {
+            LOG.warn("Could not report the failure to game {}", gameID, e);
+        }
+    }
+
     private boolean checkCanMove(AuthData authData, GameData gameData, Session session) {
         try {
             String username = authData.username();
@@ -259,20 +388,21 @@ public class WebSocketHandler {
         String whiteUser = gameData.whiteUsername();
         String blackUser = gameData.blackUsername();
 
-        String message = null;
-        if (game.isInCheckmate(ChessGame.TeamColor.WHITE)) {
-            message = whiteUser + " is in checkmate. " + blackUser + " wins!";
-            game.setGameOver(true);
-        } else if (game.isInCheckmate(ChessGame.TeamColor.BLACK)) {
-            message = blackUser + " is in checkmate. " + whiteUser + " wins!";
-            game.setGameOver(true);
-        } else if (game.isInStalemate(ChessGame.TeamColor.WHITE)) {
-            message = "Stalemate. Game over.";
+        GameStatus status = game.evaluateStatus();
+        String affectedUser = status.team() == ChessGame.TeamColor.WHITE ? whiteUser : blackUser;
+        String otherUser = status.team() == ChessGame.TeamColor.WHITE ? blackUser : whiteUser;
+
+        String message = switch (status.result()) {
+            case CHECKMATE -> affectedUser + " is in checkmate. " + otherUser + " wins!";
+            case STALEMATE -> "Stalemate. Game over.";
+            case DRAW -> "Draw by insufficient material. Game over.";
+            case REPETITION -> "Draw by threefold repetition. Game over.";
+            case FIFTY_MOVES -> "Draw by the fifty-move rule. Game over.";
+            case CHECK -> affectedUser + " is in check.";
+            case ONGOING -> null;
+        };
+        if (status.isGameOver()) {
             game.setGameOver(true);
-        } else if (game.isInCheck(ChessGame.TeamColor.WHITE)) {
-            message = whiteUser + " is in check.";
-        } else if (game.isInCheck(ChessGame.TeamColor.BLACK)) {
-            message = blackUser + " is in check.";
         }
 
         return message;
@@ -287,8 +417,7 @@ public class WebSocketHandler {
             builder.registerTypeAdapter(ServerMessage.class, new ServerMessageTypeAdapter());
             Gson gson = builder.create();
 
-//            connections.sendOneUser(session, errorMessage);
-            session.getRemote().sendString(gson.toJson(errorMessage));
+            Connection.send(session, gson.toJson(errorMessage));
         } catch (IOException ex) {
             return ;
         }
@@ -0,0 +1,90 @@
+package services;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.Move;
+import engine.OpeningBook;
+import engine.Search;
+import engine.SearchLimits;
+import engine.TranspositionTable;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Plays moves for the computer opponent. Searches run on a fixed pool of daemon threads so
+ * they never block the websocket threads, and each one is given whatever is left of the
+ * per-move budget after waiting for a thread, so a busy server still answers in time.
+ * All searches share one off-heap transposition table; entries are keyed by position, so
+ * games never see each other's results.
+ * <p>
+ * With an opening book, positions in the book are answered from it at once, without a search.
+ */
+public class EngineService {
+    // The username that seats the computer in a game; it can never be registered
+    public static final String USERNAME = "computer";
+
+    private final ExecutorService executor;
+    private final long moveMillis;
+    private final int searchThreads;
+    private final TranspositionTable table;
+    private final OpeningBook book;
+
+    /**
+     * @param book the opening book to play from, or null to always search
+     */
+    public EngineService(int threads, long moveMillis, int searchThreads, int tableMegabytes, OpeningBook book) {
+        this.executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "engine");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.moveMillis = moveMillis;
+        this.searchThreads = searchThreads;
+        this.table = new TranspositionTable(tableMegabytes);
+        this.book = book;
+    }
+
+    /**
+     * Starts choosing the computer's move. The position is copied before this returns, so the
+     * caller may keep changing the game. Book moves are looked up on the engine's threads too,
+     * so the future never completes on the caller's thread.
+     * @param game the game, with the computer to move
+     * @return the chosen move, or null if there is no legal move
+     */
+    public CompletableFuture<ChessMove> chooseMove(ChessGame game) {
+        long submitted = System.nanoTime();
+        ChessGame position = game.clone();
+        Search search = new Search(position, table);
+        return CompletableFuture.supplyAsync(() -> {
+            if (book != null) {
+                int bookMove = book.pickMove(position, ThreadLocalRandom.current());
+                if (bookMove != Move.NONE) {
+                    return Move.toChessMove(bookMove);
+                }
+            }
+            long waitedMillis = (System.nanoTime() - submitted) / 1_000_000;
+            long remainingMillis = Math.max(1, moveMillis - waitedMillis);
+            return search.search(SearchLimits.ofMillis(remainingMillis).withThreads(searchThreads)).bestMove();
+        }, executor);
+    }
+
+    /**
+     * @param game the position to look up
+     * @return the opening book's favourite move, or null if there is no book or the position
+     * is not in it
+     */
+    public ChessMove bookMove(ChessGame game) {
+        if (book == null) {
+            return null;
+        }
+        int move = book.bestMove(game);
+        return move == Move.NONE ? null : Move.toChessMove(move);
+    }
+
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -90,4 +90,29 @@ public class GameService {
         gameDAO.updateGame(joinRequest.gameID(), joinRequest.playerColor(), authData.username());
     }
 
+    public void seatComputer(JoinRequest joinRequest, String authToken)
+            throws ResponseException, DataAccessException {
+        if (authToken == null || joinRequest.playerColor() == null || joinRequest.gameID() == 0) {
+            throw new ResponseException(400, "Error: bad request");
+        }
+        if (!matchAuth(authToken)) {
+            throw new ResponseException(401, "Error: unauthorized");
+        }
+        GameData gameData = gameDAO.getGame(joinRequest.gameID());
+        if (gameData == null) {
+            throw new ResponseException(400, "Error: bad request");
+        }
+        if (joinRequest.playerColor() == ChessGame.TeamColor.WHITE && gameData.whiteUsername() != null) {
+            throw new ResponseException(403, "Error: already taken");
+        } else if (joinRequest.playerColor() == ChessGame.TeamColor.BLACK && gameData.blackUsername() != null) {
+            throw new ResponseException(403, "Error: already taken");
+        }
+        // the computer playing itself would move forever
+        if (EngineService.USERNAME.equals(gameData.whiteUsername())
+                || EngineService.USERNAME.equals(gameData.blackUsername())) {
+            throw new ResponseException(403, "Error: computer already seated");
+        }
+        gameDAO.updateGame(joinRequest.gameID(), joinRequest.playerColor(), EngineService.USERNAME);
+    }
+
 }
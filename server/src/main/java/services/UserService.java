@@ -32,7 +32,8 @@ public class UserService {
                 registerRequest.username() == null) {
             throw new ResponseException(400, "Error: bad request");
         }
-        if (userDAO.getUser(registerRequest.username()) != null) {
+        if (userDAO.getUser(registerRequest.username()) != null ||
+                registerRequest.username().equals(EngineService.USERNAME)) {
             throw new ResponseException(403, "Error: username already taken");
         }
         UserData user = new UserData(registerRequest.username(), registerRequest.password(), registerRequest.email());
@@ -1,6 +1,9 @@
 package dataaccess;
 
 import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPosition;
+import com.google.gson.Gson;
 import exception.ResponseException;
 import model.GameData;
 import org.junit.jupiter.api.BeforeEach;
@@ -147,4 +150,64 @@ public class MySqlGameDAOTests {
             assert true;
         }
     }
+
+    @Test
+    void testMadeMovePositive() {
+        try {
+            gameDAO.createGame(new GameData(1, "Amy", "Meg", "Game", new ChessGame()));
+            ChessGame game = new ChessGame();
+            game.makeMove(new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null));
+            gameDAO.madeMove(1, game);
+            assertEquals(game, gameDAO.getGame(1).game());
+        } catch (Exception e) {
+            assert false;
+        }
+    }
+
+    @Test
+    void testReadsJsonRows() {
+        try {
+            // A row saved before games were stored packed
+            ChessGame game = new ChessGame();
+            game.makeMove(new ChessMove(new ChessPosition(2, 4), new ChessPosition(4, 4), null));
+            DatabaseManager.executeUpdate(
+                    "INSERT INTO gameData (gameID, whiteUsername, blackUsername, gameName, jsonGame) VALUES (?, ?, ?, ?, ?)",
+                    1, "Amy", "Meg", "Game", new Gson().toJson(game));
+            assertEquals(game, gameDAO.getGame(1).game());
+
+            game.makeMove(new ChessMove(new ChessPosition(7, 4), new ChessPosition(5, 4), null));
+            gameDAO.madeMove(1, game);
+            assertEquals(game, gameDAO.getGame(1).game());
+        } catch (Exception e) {
+            assert false;
+        }
+    }
+
+    @Test
+    void testMoveLogReplaysSinceSnapshot() {
+        try {
+            GameDAO logDAO = new MySqlGameDAO(4);
+            logDAO.createGame(new GameData(1, "Amy", "Meg", "Game", new ChessGame()));
+            ChessGame game = new ChessGame();
+            ChessMove[] moves = {
+                    new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null),
+                    new ChessMove(new ChessPosition(7, 5), new ChessPosition(5, 5), null),
+                    new ChessMove(new ChessPosition(1, 7), new ChessPosition(3, 6), null),
+                    new ChessMove(new ChessPosition(8, 2), new ChessPosition(6, 3), null),
+                    new ChessMove(new ChessPosition(1, 6), new ChessPosition(4, 3), null),
+                    new ChessMove(new ChessPosition(8, 7), new ChessPosition(6, 6), null),
+            };
+            for (ChessMove move : moves) {
+                game.makeMove(move);
+                logDAO.madeMove(1, game, move);
+                assertEquals(game, logDAO.getGame(1).game());
+                assertEquals(game.getPlyNumber(), logDAO.getGame(1).game().getPlyNumber());
+            }
+            assertEquals(game, logDAO.listGames()[0].game());
+            // the default mode reads the same log
+            assertEquals(game, gameDAO.getGame(1).game());
+        } catch (Exception e) {
+            assert false;
+        }
+    }
 }
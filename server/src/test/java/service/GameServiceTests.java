@@ -3,6 +3,7 @@ package service;
 import chess.ChessGame;
 import dataaccess.AuthDAO;
 import dataaccess.DataAccessException;
+import dataaccess.GameDAO;
 import dataaccess.MemoryAuthDAO;
 import dataaccess.MemoryGameDAO;
 import exception.ResponseException;
@@ -11,6 +12,7 @@ import org.junit.jupiter.api.Test;
 import requests.JoinRequest;
 import requests.ListGamesResponse;
 import requests.UserFriendlyGameData;
+import services.EngineService;
 import services.GameService;
 
 import java.util.Objects;
@@ -111,4 +113,57 @@ public class GameServiceTests {
         }
     }
 
+    @Test
+    void testSeatComputerPositive() throws ResponseException {
+        AuthDAO authDAO = new MemoryAuthDAO();
+        GameDAO gameDAO = new MemoryGameDAO();
+        GameService gameService = new GameService(authDAO, gameDAO);
+        authDAO.createAuth(new AuthData("username1", "auth1"));
+
+        try {
+            gameService.createGame("game", "auth1");
+            gameService.joinGame(new JoinRequest(ChessGame.TeamColor.WHITE, 1), "auth1");
+            gameService.seatComputer(new JoinRequest(ChessGame.TeamColor.BLACK, 1), "auth1");
+            assert Objects.equals(EngineService.USERNAME, gameDAO.getGame(1).blackUsername());
+        } catch (Exception e) {
+            assert false;
+        }
+    }
+
+    @Test
+    void testSeatComputerNegative() throws ResponseException {
+        AuthDAO authDAO = new MemoryAuthDAO();
+        GameService gameService = new GameService(authDAO, new MemoryGameDAO());
+        authDAO.createAuth(new AuthData("username1", "auth1"));
+
+        try {
+            gameService.createGame("game", "auth1");
+            gameService.joinGame(new JoinRequest(ChessGame.TeamColor.WHITE, 1), "auth1");
+            gameService.seatComputer(new JoinRequest(ChessGame.TeamColor.WHITE, 1), "auth1");
+            assert false;
+        } catch (ResponseException e) {
+            assert e.getStatusCode() == 403;
+        } catch (DataAccessException e) {
+            assert false;
+        }
+    }
+
+    @Test
+    void testSeatComputerTwiceNegative() throws ResponseException {
+        AuthDAO authDAO = new MemoryAuthDAO();
+        GameService gameService = new GameService(authDAO, new MemoryGameDAO());
+        authDAO.createAuth(new AuthData("username1", "auth1"));
+
+        try {
+            gameService.createGame("game", "auth1");
+            gameService.seatComputer(new JoinRequest(ChessGame.TeamColor.WHITE, 1), "auth1");
+            gameService.seatComputer(new JoinRequest(ChessGame.TeamColor.BLACK, 1), "auth1");
+            assert false;
+        } catch (ResponseException e) {
+            assert e.getStatusCode() == 403;
+        } catch (DataAccessException e) {
+            assert false;
+        }
+    }
+
 }
@@ -0,0 +1,81 @@
+package chess;
+
+import java.util.Iterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Works out the status and number of legal moves for a long run of positions, such as every
+ * position in a database of games. Positions are pulled from the stream a batch at a time
+ * and each batch is analyzed in parallel on a ForkJoinPool, so no more than one batch of
+ * positions and results is held at once however long the stream is.
+ */
+public final class BatchAnalysis {
+
+    public static final int DEFAULT_BATCH_SIZE = 4096;
+
+    /**
+     * What is known about one position
+     *
+     * @param status the game status for the side to move
+     * @param legalMoves how many legal moves the side to move has
+     */
+    public record Report(GameStatus status, int legalMoves) {}
+
+    private BatchAnalysis() {}
+
+    /**
+     * Analyzes positions on the common ForkJoinPool in batches of {@link #DEFAULT_BATCH_SIZE}
+     *
+     * @param positions the positions, each a separate game object
+     * @param results called with each position's report, in the order of the stream
+     */
+    public static void analyze(Stream<ChessGame> positions, Consumer<? super Report> results) {
+        analyze(positions, ForkJoinPool.commonPool(), DEFAULT_BATCH_SIZE, results);
+    }
+
+    /**
+     * Analyzes positions in parallel, one batch at a time. The results are passed on from the
+     * calling thread, so the consumer does not need to be thread-safe.
+     *
+     * @param positions the positions, each a separate game object; the same object twice in
+     *                  one batch would be analyzed by two threads at once
+     * @param pool the pool to analyze on
+     * @param batchSize how many positions to take from the stream at a time
+     * @param results called with each position's report, in the order of the stream
+     */
+    public static void analyze(Stream<ChessGame> positions, ForkJoinPool pool, int batchSize,
+                               Consumer<? super Report> results) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Batch size must be positive: " + batchSize);
+        }
+        ChessGame[] batch = new ChessGame[batchSize];
+        Report[] reports = new Report[batchSize];
+        Iterator<ChessGame> iterator = positions.iterator();
+        while (iterator.hasNext()) {
+            int size = 0;
+            while (size < batchSize && iterator.hasNext()) {
+                batch[size++] = iterator.next();
+            }
+            int count = size;
+            // A parallel stream started from inside a pool runs on that pool
+            pool.submit(() -> IntStream.range(0, count).parallel()
+                    .forEach(i -> reports[i] = analyze(batch[i]))).join();
+            for (int i = 0; i < count; i++) {
+                results.accept(reports[i]);
+                batch[i] = null;
+                reports[i] = null;
+            }
+        }
+    }
+
+    /**
+     * @param game the position
+     * @return the report for the side to move
+     */
+    public static Report analyze(ChessGame game) {
+        return new Report(game.evaluateStatus(), game.legalMoveCount(game.getTeamTurn()));
+    }
+}
@@ -0,0 +1,165 @@
+package chess;
+
+import chess.ChessGame.TeamColor;
+import chess.ChessPiece.PieceType;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * Builds the win/draw bitbase for king and one piece against a lone king by retrograde
+ * analysis. The side with the piece is always white here; {@link Bitbases} mirrors the board
+ * when black has it.
+ * <p>
+ * A position is packed into 19 bits, from the high bits: whether black (the weak side) is to
+ * move, white's king square, black's king square and the piece's square. A bit is set when
+ * white wins. Positions that cannot happen in a game (kings touching, a pawn on the first or
+ * last row, the side not to move in check) stay clear.
+ * <p>
+ * The analysis starts with every bit clear and repeats passes until nothing changes. Each pass
+ * marks a white-to-move position won if some move reaches a won position, and a black-to-move
+ * position won if black is checkmated or every move reaches a won position. After pass n
+ * every win in n plies is marked. Each pass reads only the previous pass's bits, so the 64
+ * positions in a word of the table can be worked out on any thread without locking.
+ */
+final class BitbaseGenerator {
+
+    static final int POSITIONS = 1 << 19;
+    private static final int WORDS = POSITIONS / 64;
+    private static final int BLACK_TO_MOVE = 1 << 18;
+
+    private final PieceType piece;
+    // Finished queen and rook tables, for pawn promotions
+    private final long[] queenWins;
+    private final long[] rookWins;
+
+    private BitbaseGenerator(PieceType piece, long[] queenWins, long[] rookWins) {
+        this.piece = piece;
+        this.queenWins = queenWins;
+        this.rookWins = rookWins;
+    }
+
+    /**
+     * @param piece QUEEN or ROOK
+     * @return the table for king and that piece against king, one bit per position
+     */
+    static long[] generate(PieceType piece) {
+        return new BitbaseGenerator(piece, null, null).run();
+    }
+
+    /**
+     * @param queenWins the finished queen table
+     * @param rookWins the finished rook table
+     * @return the table for king and pawn against king, one bit per position
+     */
+    static long[] generatePawn(long[] queenWins, long[] rookWins) {
+        return new BitbaseGenerator(PieceType.PAWN, queenWins, rookWins).run();
+    }
+
+    /**
+     * @return the packed position, with white as the side that has the piece
+     */
+    static int index(boolean blackToMove, int whiteKing, int blackKing, int piece) {
+        return (blackToMove ? BLACK_TO_MOVE : 0) | (whiteKing << 12) | (blackKing << 6) | piece;
+    }
+
+    static boolean isSet(long[] table, int index) {
+        return (table[index >>> 6] & (1L << index)) != 0;
+    }
+
+    private long[] run() {
+        long[] wins = new long[WORDS];
+        while (true) {
+            long[] previous = wins;
+            long[] next = new long[WORDS];
+            IntStream.range(0, WORDS).parallel().forEach(word -> next[word] = pass(previous, word));
+            if (Arrays.equals(previous, next)) {
+                return next;
+            }
+            wins = next;
+        }
+    }
+
+    /**
+     * Works out one word of the table: the 64 piece squares for one side to move and pair of
+     * king squares
+     */
+    private long pass(long[] wins, int word) {
+        int base = word << 6;
+        boolean blackToMove = (base & BLACK_TO_MOVE) != 0;
+        int whiteKing = (base >>> 12) & 63;
+        int blackKing = (base >>> 6) & 63;
+        long result = wins[word];
+        if (whiteKing == blackKing || (Bitboards.kingAttacks(whiteKing) & (1L << blackKing)) != 0) {
+            return result;
+        }
+        for (int square = 0; square < 64; square++) {
+            if ((result & (1L << square)) != 0 || square == whiteKing || square == blackKing
+                    || (piece == PieceType.PAWN && (Bitboards.row(square) == 1 || Bitboards.row(square) == 8))) {
+                continue;
+            }
+            boolean won = blackToMove ? blackLoses(wins, whiteKing, blackKing, square)
+                    : whiteWins(wins, whiteKing, blackKing, square);
+            if (won) {
+                result |= 1L << square;
+            }
+        }
+        return result;
+    }
+
+    private boolean whiteWins(long[] wins, int whiteKing, int blackKing, int square) {
+        long occupied = (1L << whiteKing) | (1L << blackKing) | (1L << square);
+        if ((Bitboards.attacks(piece, TeamColor.WHITE, square, occupied) & (1L << blackKing)) != 0) {
+            return false; // black is in check with white to move
+        }
+
+        long kingTargets = Bitboards.kingAttacks(whiteKing) & ~Bitboards.kingAttacks(blackKing) & ~occupied;
+        for (; kingTargets != 0; kingTargets &= kingTargets - 1) {
+            if (isSet(wins, index(true, Long.numberOfTrailingZeros(kingTargets), blackKing, square))) {
+                return true;
+            }
+        }
+
+        if (piece == PieceType.PAWN) {
+            int push = square + 8;
+            if ((occupied & (1L << push)) != 0) {
+                return false;
+            }
+            if (Bitboards.row(push) == 8) {
+                int promoted = index(true, whiteKing, blackKing, push);
+                return isSet(queenWins, promoted) || isSet(rookWins, promoted);
+            }
+            if (isSet(wins, index(true, whiteKing, blackKing, push))) {
+                return true;
+            }
+            int doublePush = square + 16;
+            return Bitboards.row(square) == 2 && (occupied & (1L << doublePush)) == 0
+                    && isSet(wins, index(true, whiteKing, blackKing, doublePush));
+        }
+
+        long pieceTargets = Bitboards.attacks(piece, TeamColor.WHITE, square, occupied) & ~occupied;
+        for (; pieceTargets != 0; pieceTargets &= pieceTargets - 1) {
+            if (isSet(wins, index(true, whiteKing, blackKing, Long.numberOfTrailingZeros(pieceTargets)))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean blackLoses(long[] wins, int whiteKing, int blackKing, int square) {
+        // The black king is left out, since it cannot hide behind itself when it steps back
+        long attacked = Bitboards.kingAttacks(whiteKing)
+                | Bitboards.attacks(piece, TeamColor.WHITE, square, (1L << whiteKing) | (1L << square));
+        long targets = Bitboards.kingAttacks(blackKing) & ~attacked;
+        if (targets == 0) {
+            return (attacked & (1L << blackKing)) != 0; // checkmate, or stalemate
+        }
+        for (; targets != 0; targets &= targets - 1) {
+            int target = Long.numberOfTrailingZeros(targets);
+            if (target == square || !isSet(wins, index(false, whiteKing, target, square))) {
+                return false; // the piece is taken, or black escapes to a position that is not lost
+            }
+        }
+        return true;
+    }
+}
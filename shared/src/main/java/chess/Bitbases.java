@@ -0,0 +1,160 @@
+package chess;
+
+import chess.ChessGame.TeamColor;
+import chess.ChessPiece.PieceType;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Exact win/draw results for king and queen, king and rook, and king and pawn against a lone
+ * king. The tables are built here by retrograde analysis ({@link #generate}), kept on disk as
+ * one bit per position (64 KB a table) and memory-mapped when opened, so a probe is one read
+ * from the mapped file.
+ * <p>
+ * A process installs one set of tables with {@link #install}; {@link ChessGame} and the search
+ * probe the installed tables, if any. The tables are read-only and safe to share between
+ * threads.
+ */
+public final class Bitbases {
+
+    /**
+     * The result of a position with perfect play, for the side to move
+     */
+    public enum Outcome {
+        WIN,
+        DRAW,
+        LOSS,
+        // the position is not covered by the tables
+        UNKNOWN
+    }
+
+    public static final int TABLE_BYTES = BitbaseGenerator.POSITIONS / 8;
+
+    // Indexed by PieceType ordinal: KING, QUEEN, BISHOP, KNIGHT, ROOK, PAWN
+    private static final String[] FILE_NAMES = {null, "kqk.bin", null, null, "krk.bin", "kpk.bin"};
+
+    private static volatile Bitbases installed;
+
+    // Indexed by PieceType ordinal; null for pieces without a table
+    private final ByteBuffer[] tables = new ByteBuffer[FILE_NAMES.length];
+
+    private Bitbases(Path directory) throws IOException {
+        for (int type = 0; type < FILE_NAMES.length; type++) {
+            if (FILE_NAMES[type] != null) {
+                tables[type] = map(directory.resolve(FILE_NAMES[type]));
+            }
+        }
+    }
+
+    /**
+     * Memory-maps the tables written by {@link #generate}
+     * @param directory the directory holding the tables
+     * @return the tables
+     * @throws IOException if a table is missing or cannot be read
+     * @throws IllegalArgumentException if a table is the wrong size
+     */
+    public static Bitbases open(Path directory) throws IOException {
+        return new Bitbases(directory);
+    }
+
+    /**
+     * Opens the tables in a directory, generating any that are missing first
+     * @param directory the directory holding the tables, created if needed
+     * @return the tables
+     * @throws IOException if the tables cannot be written or read
+     */
+    public static Bitbases openOrGenerate(Path directory) throws IOException {
+        for (String fileName : FILE_NAMES) {
+            if (fileName != null && !Files.exists(directory.resolve(fileName))) {
+                generate(directory);
+                break;
+            }
+        }
+        return open(directory);
+    }
+
+    /**
+     * Builds every table and writes it to a directory, replacing any tables already there
+     * @param directory the directory to write to, created if needed
+     * @throws IOException if the tables cannot be written
+     */
+    public static void generate(Path directory) throws IOException {
+        long[] queenWins = BitbaseGenerator.generate(PieceType.QUEEN);
+        long[] rookWins = BitbaseGenerator.generate(PieceType.ROOK);
+        long[] pawnWins = BitbaseGenerator.generatePawn(queenWins, rookWins);
+
+        Files.createDirectories(directory);
+        write(directory.resolve(FILE_NAMES[PieceType.QUEEN.ordinal()]), queenWins);
+        write(directory.resolve(FILE_NAMES[PieceType.ROOK.ordinal()]), rookWins);
+        write(directory.resolve(FILE_NAMES[PieceType.PAWN.ordinal()]), pawnWins);
+    }
+
+    /**
+     * Sets the tables this process probes
+     * @param bitbases the tables, or null to stop probing
+     */
+    public static void install(Bitbases bitbases) {
+        installed = bitbases;
+    }
+
+    /**
+     * @return the tables this process probes, or null if none are installed
+     */
+    public static Bitbases installed() {
+        return installed;
+    }
+
+    /**
+     * Looks up a position
+     * @param board the board
+     * @param toMove the side to move
+     * @return the result with perfect play for the side to move, or UNKNOWN if the board is
+     * not two kings and a single queen, rook or pawn
+     */
+    public Outcome probe(ChessBoard board, TeamColor toMove) {
+        if (Long.bitCount(board.occupied()) != 3 || board.kingSquare(TeamColor.WHITE) < 0
+                || board.kingSquare(TeamColor.BLACK) < 0) {
+            return Outcome.UNKNOWN;
+        }
+        TeamColor strong = Long.bitCount(board.pieces(TeamColor.WHITE)) == 2 ? TeamColor.WHITE : TeamColor.BLACK;
+        TeamColor weak = strong == TeamColor.WHITE ? TeamColor.BLACK : TeamColor.WHITE;
+        int square = Long.numberOfTrailingZeros(board.pieces(strong) & ~board.pieces(strong, PieceType.KING));
+        ByteBuffer table = tables[board.getPiece(square).getPieceType().ordinal()];
+        if (table == null) {
+            return Outcome.UNKNOWN;
+        }
+
+        // The tables have the piece on white's side, so mirror the board top to bottom for black
+        int flip = strong == TeamColor.WHITE ? 0 : 56;
+        int index = BitbaseGenerator.index(toMove == weak, board.kingSquare(strong) ^ flip,
+                board.kingSquare(weak) ^ flip, square ^ flip);
+        if ((table.get(index >>> 3) & (1 << (index & 7))) == 0) {
+            return Outcome.DRAW;
+        }
+        return toMove == strong ? Outcome.WIN : Outcome.LOSS;
+    }
+
+    private static ByteBuffer map(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() != TABLE_BYTES) {
+                throw new IllegalArgumentException("Not a bitbase: " + path);
+            }
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, TABLE_BYTES);
+        }
+    }
+
+    /**
+     * Writes a table with bit i of the table in bit (i % 8) of byte (i / 8)
+     */
+    private static void write(Path path, long[] wins) throws IOException {
+        ByteBuffer bytes = ByteBuffer.allocate(TABLE_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        bytes.asLongBuffer().put(wins);
+        Files.write(path, bytes.array());
+    }
+}
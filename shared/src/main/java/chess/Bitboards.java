@@ -0,0 +1,343 @@
+package chess;
+
+/**
+ * Helpers for working with bitboards, 64-bit masks where each bit stands for one square.
+ * <p>
+ * Squares are numbered 0 (a1) to 63 (h8), going left to right along each row
+ * and then up the board, so square = (row-1)*8 + (column-1).
+ * <p>
+ * Attack sets come from lookup tables built once per process, so finding where any piece
+ * attacks costs one or two array reads.
+ */
+public final class Bitboards {
+
+    public static final long FILE_A = 0x0101010101010101L;
+    public static final long FILE_H = FILE_A << 7;
+    public static final long RANK_1 = 0xFFL;
+    public static final long RANK_8 = RANK_1 << 56;
+
+    private static final int[][] KNIGHT_OFFSETS = {{2,1}, {2,-1}, {1,2}, {1,-2}, {-1,2}, {-1,-2}, {-2,1}, {-2,-1}};
+    private static final int[][] KING_OFFSETS = {{1,1}, {1,0}, {1,-1}, {0,1}, {0,-1}, {-1,1}, {-1,0}, {-1,-1}};
+    private static final int[][] ROOK_DIRECTIONS = {{1,0}, {-1,0}, {0,1}, {0,-1}};
+    private static final int[][] BISHOP_DIRECTIONS = {{1,1}, {1,-1}, {-1,1}, {-1,-1}};
+
+    private Bitboards() {}
+
+    /**
+     * @return the square index of the given row and column (both starting at 1)
+     */
+    public static int square(int row, int column) {
+        return (row - 1) * 8 + (column - 1);
+    }
+
+    /**
+     * @return the square index of the given position
+     */
+    public static int square(ChessPosition position) {
+        return square(position.getRow(), position.getColumn());
+    }
+
+    /**
+     * @return the row (1-8) of a square index
+     */
+    public static int row(int square) {
+        return (square >>> 3) + 1;
+    }
+
+    /**
+     * @return the column (1-8) of a square index
+     */
+    public static int column(int square) {
+        return (square & 7) + 1;
+    }
+
+    /**
+     * @return a new position object for a square index
+     */
+    public static ChessPosition position(int square) {
+        return new ChessPosition(row(square), column(square));
+    }
+
+    /**
+     * Squares a knight on the given square attacks
+     * @param square the knight's square
+     * @return mask of attacked squares
+     */
+    public static long knightAttacks(int square) {
+        return StepTables.KNIGHT[square];
+    }
+
+    /**
+     * Squares a king on the given square attacks
+     * @param square the king's square
+     * @return mask of attacked squares
+     */
+    public static long kingAttacks(int square) {
+        return StepTables.KING[square];
+    }
+
+    /**
+     * Squares a pawn of the given color attacks (its diagonal capture squares)
+     * @param color the color of the pawn
+     * @param square the pawn's square
+     * @return mask of attacked squares
+     */
+    public static long pawnAttacks(ChessGame.TeamColor color, int square) {
+        return StepTables.PAWN[color.ordinal() * 64 + square];
+    }
+
+    /**
+     * Squares a rook attacks, stopping at (and including) the first piece on each ray
+     * @param square the rook's square
+     * @param occupied every occupied square on the board
+     * @return mask of attacked squares
+     */
+    public static long rookAttacks(int square, long occupied) {
+        long mask = SlidingTables.ROOK_MASKS[square];
+        return SlidingTables.ROOK_ATTACKS[SlidingTables.ROOK_OFFSETS[square] + (int) Long.compress(occupied, mask)];
+    }
+
+    /**
+     * Squares a bishop attacks, stopping at (and including) the first piece on each ray
+     * @param square the bishop's square
+     * @param occupied every occupied square on the board
+     * @return mask of attacked squares
+     */
+    public static long bishopAttacks(int square, long occupied) {
+        long mask = SlidingTables.BISHOP_MASKS[square];
+        return SlidingTables.BISHOP_ATTACKS[SlidingTables.BISHOP_OFFSETS[square]
+                + (int) Long.compress(occupied, mask)];
+    }
+
+    /**
+     * Squares a queen attacks, stopping at (and including) the first piece on each ray
+     * @param square the queen's square
+     * @param occupied every occupied square on the board
+     * @return mask of attacked squares
+     */
+    public static long queenAttacks(int square, long occupied) {
+        return rookAttacks(square, occupied) | bishopAttacks(square, occupied);
+    }
+
+    /**
+     * Squares a piece of the given type attacks. Pawns only attack diagonally,
+     * so their forward pushes are not included.
+     * @param type the type of piece
+     * @param color the color of the piece
+     * @param square the piece's square
+     * @param occupied every occupied square on the board
+     * @return mask of attacked squares
+     */
+    public static long attacks(ChessPiece.PieceType type, ChessGame.TeamColor color, int square, long occupied) {
+        return switch (type) {
+            case KING -> kingAttacks(square);
+            case QUEEN -> queenAttacks(square, occupied);
+            case BISHOP -> bishopAttacks(square, occupied);
+            case KNIGHT -> knightAttacks(square);
+            case ROOK -> rookAttacks(square, occupied);
+            case PAWN -> pawnAttacks(color, square);
+        };
+    }
+
+    /**
+     * Squares strictly between two squares that share a row, column or diagonal
+     * @param from one end of the line
+     * @param to the other end of the line
+     * @return mask of the squares in between, or 0 if the squares are not aligned
+     */
+    public static long between(int from, int to) {
+        return LineTables.BETWEEN[from * 64 + to];
+    }
+
+    private static long computeBetween(int from, int to) {
+        int[] direction = direction(from, to);
+        if (direction == null) {
+            return 0L;
+        }
+        long squares = 0L;
+        int targetRow = row(from) + direction[0];
+        int targetColumn = column(from) + direction[1];
+        while (square(targetRow, targetColumn) != to) {
+            squares |= 1L << square(targetRow, targetColumn);
+            targetRow += direction[0];
+            targetColumn += direction[1];
+        }
+        return squares;
+    }
+
+    /**
+     * The whole row, column or diagonal running through two squares, edge to edge
+     * @param from one square on the line
+     * @param to another square on the line
+     * @return mask of the line, or 0 if the squares are not aligned
+     */
+    public static long line(int from, int to) {
+        return LineTables.LINE[from * 64 + to];
+    }
+
+    private static long computeLine(int from, int to) {
+        int[] direction = direction(from, to);
+        if (direction == null) {
+            return 0L;
+        }
+        long squares = 1L << from;
+        for (int sign = -1; sign <= 1; sign += 2) {
+            int targetRow = row(from) + sign * direction[0];
+            int targetColumn = column(from) + sign * direction[1];
+            while (onBoard(targetRow, targetColumn)) {
+                squares |= 1L << square(targetRow, targetColumn);
+                targetRow += sign * direction[0];
+                targetColumn += sign * direction[1];
+            }
+        }
+        return squares;
+    }
+
+    /**
+     * @return the single row/column step leading from one square toward another,
+     * or null if they are the same square or not on a shared line
+     */
+    private static int[] direction(int from, int to) {
+        int rowDistance = row(to) - row(from);
+        int columnDistance = column(to) - column(from);
+        if (from == to || (rowDistance != 0 && columnDistance != 0 &&
+                Math.abs(rowDistance) != Math.abs(columnDistance))) {
+            return null;
+        }
+        return new int[] {Integer.signum(rowDistance), Integer.signum(columnDistance)};
+    }
+
+    /*
+     * Lookup tables. Each group lives in its own holder class, so it is built the first
+     * time it is used (class initialization is lazy and thread safe) and then only read,
+     * which makes it safe to share between threads.
+     */
+
+    /**
+     * Knight, king and pawn attacks from every square
+     */
+    private static final class StepTables {
+        static final long[] KNIGHT = new long[64];
+        static final long[] KING = new long[64];
+        static final long[] PAWN = new long[128]; // white squares 0-63, black squares 64-127
+
+        static {
+            for (int square = 0; square < 64; square++) {
+                KNIGHT[square] = stepAttacks(square, KNIGHT_OFFSETS);
+                KING[square] = stepAttacks(square, KING_OFFSETS);
+                PAWN[square] = stepAttacks(square, new int[][] {{1, 1}, {1, -1}});
+                PAWN[64 + square] = stepAttacks(square, new int[][] {{-1, 1}, {-1, -1}});
+            }
+        }
+    }
+
+    /**
+     * Rook and bishop attacks for every square and every arrangement of blocking pieces.
+     * <p>
+     * For each square, the mask holds the squares whose occupancy can change the attacks:
+     * the rays without their last square, since a piece on the edge blocks nothing further.
+     * Long.compress (a PEXT instruction on CPUs that have one) packs the occupied squares of
+     * the mask into a dense index into that square's slice of the attack table.
+     */
+    private static final class SlidingTables {
+        static final long[] ROOK_MASKS = new long[64];
+        static final long[] BISHOP_MASKS = new long[64];
+        static final int[] ROOK_OFFSETS = new int[64];
+        static final int[] BISHOP_OFFSETS = new int[64];
+        static final long[] ROOK_ATTACKS;
+        static final long[] BISHOP_ATTACKS;
+
+        static {
+            ROOK_ATTACKS = build(ROOK_DIRECTIONS, ROOK_MASKS, ROOK_OFFSETS);
+            BISHOP_ATTACKS = build(BISHOP_DIRECTIONS, BISHOP_MASKS, BISHOP_OFFSETS);
+        }
+
+        private static long[] build(int[][] directions, long[] masks, int[] offsets) {
+            int size = 0;
+            for (int square = 0; square < 64; square++) {
+                masks[square] = relevantOccupancy(square, directions);
+                offsets[square] = size;
+                size += 1 << Long.bitCount(masks[square]);
+            }
+            long[] attacks = new long[size];
+            for (int square = 0; square < 64; square++) {
+                long mask = masks[square];
+                // walk every subset of the mask
+                long subset = 0L;
+                do {
+                    attacks[offsets[square] + (int) Long.compress(subset, mask)] =
+                            slidingAttacks(square, subset, directions);
+                    subset = (subset - mask) & mask;
+                } while (subset != 0);
+            }
+            return attacks;
+        }
+
+        private static long relevantOccupancy(int square, int[][] directions) {
+            long mask = 0L;
+            for (int[] direction : directions) {
+                int targetRow = row(square) + direction[0];
+                int targetColumn = column(square) + direction[1];
+                while (onBoard(targetRow + direction[0], targetColumn + direction[1])) {
+                    mask |= 1L << square(targetRow, targetColumn);
+                    targetRow += direction[0];
+                    targetColumn += direction[1];
+                }
+            }
+            return mask;
+        }
+    }
+
+    /**
+     * Squares between, and lines through, every pair of squares
+     */
+    private static final class LineTables {
+        static final long[] BETWEEN = new long[64 * 64];
+        static final long[] LINE = new long[64 * 64];
+
+        static {
+            for (int from = 0; from < 64; from++) {
+                for (int to = 0; to < 64; to++) {
+                    BETWEEN[from * 64 + to] = computeBetween(from, to);
+                    LINE[from * 64 + to] = computeLine(from, to);
+                }
+            }
+        }
+    }
+
+    private static long stepAttacks(int square, int[][] offsets) {
+        int row = row(square);
+        int column = column(square);
+        long attacks = 0L;
+        for (int[] offset : offsets) {
+            int targetRow = row + offset[0];
+            int targetColumn = column + offset[1];
+            if (onBoard(targetRow, targetColumn)) {
+                attacks |= 1L << square(targetRow, targetColumn);
+            }
+        }
+        return attacks;
+    }
+
+    private static long slidingAttacks(int square, long occupied, int[][] directions) {
+        long attacks = 0L;
+        for (int[] direction : directions) {
+            int targetRow = row(square) + direction[0];
+            int targetColumn = column(square) + direction[1];
+            while (onBoard(targetRow, targetColumn)) {
+                long target = 1L << square(targetRow, targetColumn);
+                attacks |= target;
+                if ((occupied & target) != 0) {
+                    break;
+                }
+                targetRow += direction[0];
+                targetColumn += direction[1];
+            }
+        }
+        return attacks;
+    }
+
+    private static boolean onBoard(int row, int column) {
+        return row >= 1 && row <= 8 && column >= 1 && column <= 8;
+    }
+}
@@ -1,6 +1,5 @@
 package chess;
 
-import java.util.Arrays;
 import java.util.Objects;
 import chess.ChessGame.TeamColor;
 import chess.ChessPiece.PieceType;
@@ -15,6 +14,41 @@ public class ChessBoard implements Cloneable {
 
     private ChessPosition[][] board;
 
+    // Bitboard index of the pieces in board, one mask per color and piece type
+    // (color.ordinal() * 6 + type.ordinal()) plus one mask per color.
+    // These are derived from board, so they are left out of serialization and
+    // rebuilt whenever board is replaced (see ensureIndexed).
+    private transient long[] pieceBits = new long[12];
+    private transient long[] colorBits = new long[2];
+    private transient ChessPosition[][] indexedBoard;
+    // Zobrist key of the piece placement, kept up to date alongside the bitboards
+    private transient long positionKey = 0L;
+    // Square index of each team's king (by color.ordinal()), or -1 if it has none
+    private transient int[] kingSquares = {-1, -1};
+    // Sums of the PieceSquareTables values of every piece, from white's side, and the game
+    // phase, kept up to date alongside the bitboards
+    private transient int midgameScore = 0;
+    private transient int endgameScore = 0;
+    private transient int phase = 0;
+
+    // One shared instance of every piece, indexed by pieceIndex + 1, so undo records can
+    // name pieces with a small number. Pieces are immutable, so sharing them is safe.
+    private static final ChessPiece[] PIECES = new ChessPiece[13];
+
+    static {
+        for (TeamColor color : TeamColor.values()) {
+            for (PieceType type : PieceType.values()) {
+                PIECES[pieceIndex(color, type) + 1] = new ChessPiece(color, type);
+            }
+        }
+    }
+
+    // Layout of the undo records returned by doMove
+    private static final int UNDO_TO_SHIFT = 6;
+    private static final int UNDO_MOVED_SHIFT = 12;
+    private static final int UNDO_CAPTURED_SHIFT = 16;
+    private static final int UNDO_PROMOTION_SHIFT = 20;
+
     public ChessBoard() {
         board = new ChessPosition[8][8];
         for (int i = 0; i < 8; i++) {
@@ -22,10 +56,13 @@ public class ChessBoard implements Cloneable {
                 board[i][j] = new ChessPosition(i+1, j+1);
             }
         }
+        indexedBoard = board;
     }
 
     /**
-     * Gets the chess board
+     * Gets the chess board. Pieces set directly on its squares are not seen by the bitboards,
+     * king squares or position key until the array is passed back to {@link #setBoard}; use
+     * {@link #addPiece} to change a single square.
      * @return the array serving as the board
      */
     public ChessPosition[][] getBoard() {
@@ -33,11 +70,13 @@ public class ChessBoard implements Cloneable {
     }
 
     /**
-     * Sets the board to a different board
+     * Sets the board to a different board, or to the same array after its squares were edited
+     * in place, and rebuilds the bitboards, king squares and position key from it
      * @param board the board to be saved
      */
     public void setBoard(ChessPosition[][] board) {
         this.board = board;
+        rebuildIndex();
     }
 
     /**
@@ -47,8 +86,119 @@ public class ChessBoard implements Cloneable {
      * @param piece    the piece to add
      */
     public void addPiece(ChessPosition position, ChessPiece piece) {
-        ChessPosition currentSquare = board[position.getRow()-1][position.getColumn()-1];
+        ensureIndexed();
+        putPiece(Bitboards.square(position), piece);
+    }
+
+    /**
+     * Adds a chess piece to the chessboard by square index
+     *
+     * @param square where to add the piece to (see {@link Bitboards})
+     * @param piece  the piece to add
+     */
+    void addPiece(int square, ChessPiece piece) {
+        ensureIndexed();
+        putPiece(square, piece);
+    }
+
+    /**
+     * Places a piece on a square (or empties it) and keeps the bitboards in step.
+     * The caller must have already called ensureIndexed.
+     */
+    private void putPiece(int square, ChessPiece piece) {
+        ChessPosition currentSquare = board[square >>> 3][square & 7];
+        long squareBit = 1L << square;
+        if (currentSquare.getPiece() != null) {
+            removeBits(currentSquare.getPiece(), squareBit);
+        }
         currentSquare.setPiece(piece);
+        if (piece != null) {
+            addBits(piece, squareBit);
+        }
+    }
+
+    /**
+     * Moves a piece in place without checking that the move is legal, capturing whatever
+     * is on the end square and promoting if the move says to.
+     *
+     * @param move the move to make
+     * @return an undo record to pass to {@link #undoMove(int)}; only the low 23 bits are used
+     * @throws IllegalArgumentException if there is no piece on the start square
+     */
+    public int doMove(ChessMove move) {
+        return doMove(Bitboards.square(move.getStartPosition()), Bitboards.square(move.getEndPosition()),
+                move.getPromotionPiece());
+    }
+
+    /**
+     * Moves a piece in place by square index; see {@link #doMove(ChessMove)}
+     *
+     * @param from the square index the piece starts on
+     * @param to the square index the piece ends on
+     * @param promotion the piece a pawn promotes to, or null
+     * @return an undo record to pass to {@link #undoMove(int)}
+     */
+    public int doMove(int from, int to, PieceType promotion) {
+        ensureIndexed();
+        ChessPiece moving = getPiece(from);
+        if (moving == null) {
+            throw new IllegalArgumentException("No piece to move on " + Bitboards.position(from));
+        }
+        ChessPiece captured = getPiece(to);
+        int record = from | (to << UNDO_TO_SHIFT) | (pieceCode(moving) << UNDO_MOVED_SHIFT)
+                | (pieceCode(captured) << UNDO_CAPTURED_SHIFT);
+        putPiece(from, null);
+        if (promotion != null) {
+            record |= (promotion.ordinal() + 1) << UNDO_PROMOTION_SHIFT;
+            putPiece(to, PIECES[pieceIndex(moving.getTeamColor(), promotion) + 1]);
+        } else {
+            putPiece(to, moving);
+        }
+        return record;
+    }
+
+    /**
+     * Takes back a move made with doMove. Moves must be undone in the reverse order they
+     * were made.
+     *
+     * @param undoRecord the record doMove returned for the move
+     */
+    public void undoMove(int undoRecord) {
+        ensureIndexed();
+        int from = undoRecord & 63;
+        int to = (undoRecord >>> UNDO_TO_SHIFT) & 63;
+        putPiece(from, PIECES[(undoRecord >>> UNDO_MOVED_SHIFT) & 15]);
+        putPiece(to, PIECES[(undoRecord >>> UNDO_CAPTURED_SHIFT) & 15]);
+    }
+
+    /**
+     * @return the piece captured by the move an undo record describes, or null
+     */
+    public static ChessPiece capturedPiece(int undoRecord) {
+        return PIECES[(undoRecord >>> UNDO_CAPTURED_SHIFT) & 15];
+    }
+
+    /**
+     * @return the piece a pawn was promoted to by the move an undo record describes, or null
+     */
+    public static PieceType promotionPiece(int undoRecord) {
+        int promotion = (undoRecord >>> UNDO_PROMOTION_SHIFT) & 7;
+        return promotion == 0 ? null : PieceType.values()[promotion - 1];
+    }
+
+    /**
+     * @return a number from 1 to 12 naming the piece, or 0 for no piece
+     */
+    static int pieceCode(ChessPiece piece) {
+        return piece == null ? 0 : pieceIndex(piece.getTeamColor(), piece.getPieceType()) + 1;
+    }
+
+    /**
+     * @param code a number from {@link #pieceCode}
+     * @return the shared piece it names, or null for 0
+     */
+    static ChessPiece pieceForCode(int code) {
+        return PIECES[code];
     }
 
     /**
@@ -64,7 +214,9 @@ public class ChessBoard implements Cloneable {
     }
 
     /**
-     * Returns the position on this board at the given location
+     * Returns the position on this board at the given location. Setting a piece on it directly
+     * has to be followed by {@link #setBoard} with this board's array; use {@link #addPiece}
+     * instead to keep the board consistent.
      * @param position the location to be retrieved
      * @return the position object on this board
      */
@@ -72,6 +224,245 @@ public class ChessBoard implements Cloneable {
         return board[position.getRow()-1][position.getColumn()-1];
     }
 
+    /**
+     * Gets the squares holding pieces of one color and type
+     *
+     * @param color the color of the pieces
+     * @param type the type of the pieces
+     * @return bitboard of the squares holding those pieces
+     */
+    public long pieces(TeamColor color, PieceType type) {
+        ensureIndexed();
+        return pieceBits[pieceIndex(color, type)];
+    }
+
+    /**
+     * Gets the squares holding pieces of one color
+     *
+     * @param color the color of the pieces
+     * @return bitboard of the squares holding that team's pieces
+     */
+    public long pieces(TeamColor color) {
+        ensureIndexed();
+        return colorBits[color.ordinal()];
+    }
+
+    /**
+     * @return bitboard of every occupied square
+     */
+    public long occupied() {
+        ensureIndexed();
+        return colorBits[0] | colorBits[1];
+    }
+
+    /**
+     * Determines whether any piece of a team attacks a square, whether or not the square is
+     * occupied. Looks outward from the square along knight, king and pawn offsets and along
+     * each sliding ray instead of generating the attacking team's moves.
+     *
+     * @param position the square to test
+     * @param byColor the attacking team
+     * @return true if a piece of that team could capture on the square
+     */
+    public boolean isSquareAttacked(ChessPosition position, TeamColor byColor) {
+        return isSquareAttacked(Bitboards.square(position), byColor);
+    }
+
+    /**
+     * Determines whether any piece of a team attacks a square; see
+     * {@link #isSquareAttacked(ChessPosition, TeamColor)}
+     *
+     * @param square the square index to test
+     * @param byColor the attacking team
+     * @return true if a piece of that team could capture on the square
+     */
+    public boolean isSquareAttacked(int square, TeamColor byColor) {
+        return isSquareAttacked(square, byColor, occupied());
+    }
+
+    /**
+     * Determines whether a team attacks a square as if only the given squares were occupied.
+     * Move legality uses this to see through a king that is about to step away.
+     */
+    boolean isSquareAttacked(int square, TeamColor byColor, long occupied) {
+        ensureIndexed();
+        int by = byColor.ordinal() * 6;
+        TeamColor defender = byColor == TeamColor.WHITE ? TeamColor.BLACK : TeamColor.WHITE;
+        if ((Bitboards.knightAttacks(square) & pieceBits[by + PieceType.KNIGHT.ordinal()]) != 0
+                || (Bitboards.pawnAttacks(defender, square) & pieceBits[by + PieceType.PAWN.ordinal()]) != 0
+                || (Bitboards.kingAttacks(square) & pieceBits[by + PieceType.KING.ordinal()]) != 0) {
+            return true;
+        }
+        long queens = pieceBits[by + PieceType.QUEEN.ordinal()];
+        long straightSliders = pieceBits[by + PieceType.ROOK.ordinal()] | queens;
+        long diagonalSliders = pieceBits[by + PieceType.BISHOP.ordinal()] | queens;
+        return ((straightSliders & occupied) != 0 && (Bitboards.rookAttacks(square, occupied) & straightSliders) != 0)
+                || ((diagonalSliders & occupied) != 0
+                && (Bitboards.bishopAttacks(square, occupied) & diagonalSliders) != 0);
+    }
+
+    /**
+     * Finds every piece of a team that attacks a square
+     *
+     * @param square the square index to test
+     * @param byColor the attacking team
+     * @return bitboard of the attacking pieces
+     */
+    public long attackersTo(int square, TeamColor byColor) {
+        ensureIndexed();
+        long occupied = colorBits[0] | colorBits[1];
+        int by = byColor.ordinal() * 6;
+        TeamColor defender = byColor == TeamColor.WHITE ? TeamColor.BLACK : TeamColor.WHITE;
+        long queens = pieceBits[by + PieceType.QUEEN.ordinal()];
+        return (Bitboards.knightAttacks(square) & pieceBits[by + PieceType.KNIGHT.ordinal()])
+                | (Bitboards.pawnAttacks(defender, square) & pieceBits[by + PieceType.PAWN.ordinal()])
+                | (Bitboards.kingAttacks(square) & pieceBits[by + PieceType.KING.ordinal()])
+                | (Bitboards.rookAttacks(square, occupied) & (pieceBits[by + PieceType.ROOK.ordinal()] | queens))
+                | (Bitboards.bishopAttacks(square, occupied) & (pieceBits[by + PieceType.BISHOP.ordinal()] | queens));
+    }
+
+    /**
+     * Gets a chess piece by square index
+     *
+     * @param square the square index (see {@link Bitboards})
+     * @return the piece on that square, or null if it is empty
+     */
+    public ChessPiece getPiece(int square) {
+        return board[square >>> 3][square & 7].getPiece();
+    }
+
+    private static int pieceIndex(TeamColor color, PieceType type) {
+        return color.ordinal() * 6 + type.ordinal();
+    }
+
+    /**
+     * Gets the Zobrist key of the pieces on this board. Equal boards always have equal keys,
+     * and different boards have different keys with overwhelming probability. The key does
+     * not include whose turn it is; see {@link ChessGame#getPositionKey()}.
+     *
+     * @return 64-bit key of the piece placement
+     */
+    public long getPositionKey() {
+        ensureIndexed();
+        return positionKey;
+    }
+
+    /**
+     * Gets the square of a team's king without searching the board
+     *
+     * @param color the team whose king is wanted
+     * @return the king's square index, or -1 if that team has no king on the board
+     */
+    public int kingSquare(TeamColor color) {
+        ensureIndexed();
+        return kingSquares[color.ordinal()];
+    }
+
+    /**
+     * Gets the middlegame material and piece-square score, kept up to date as pieces move
+     *
+     * @return the score in centipawns, positive when white is ahead
+     */
+    public int getMidgameScore() {
+        ensureIndexed();
+        return midgameScore;
+    }
+
+    /**
+     * Gets the endgame material and piece-square score, kept up to date as pieces move
+     *
+     * @return the score in centipawns, positive when white is ahead
+     */
+    public int getEndgameScore() {
+        ensureIndexed();
+        return endgameScore;
+    }
+
+    /**
+     * Gets the game phase, which falls from {@link PieceSquareTables#MAX_PHASE} toward 0 as
+     * pieces come off the board
+     *
+     * @return the phase counter
+     */
+    public int getPhase() {
+        ensureIndexed();
+        return phase;
+    }
+
+    /**
+     * Gets the position of a team's king without searching the board
+     *
+     * @param color the team whose king is wanted
+     * @return the king's position, or null if that team has no king on the board
+     */
+    public ChessPosition getKingPosition(TeamColor color) {
+        int square = kingSquare(color);
+        return square < 0 ? null : Bitboards.position(square);
+    }
+
+    private void addBits(ChessPiece piece, long squareBit) {
+        int index = pieceIndex(piece.getTeamColor(), piece.getPieceType());
+        int square = Long.numberOfTrailingZeros(squareBit);
+        pieceBits[index] |= squareBit;
+        colorBits[piece.getTeamColor().ordinal()] |= squareBit;
+        positionKey ^= Zobrist.pieceSquare(index, square);
+        midgameScore += PieceSquareTables.midgame(index, square);
+        endgameScore += PieceSquareTables.endgame(index, square);
+        phase += PieceSquareTables.phaseWeight(index);
+        if (piece.getPieceType() == PieceType.KING) {
+            updateKingSquare(piece.getTeamColor(), index);
+        }
+    }
+
+    private void removeBits(ChessPiece piece, long squareBit) {
+        int index = pieceIndex(piece.getTeamColor(), piece.getPieceType());
+        int square = Long.numberOfTrailingZeros(squareBit);
+        pieceBits[index] &= ~squareBit;
+        colorBits[piece.getTeamColor().ordinal()] &= ~squareBit;
+        positionKey ^= Zobrist.pieceSquare(index, square);
+        midgameScore -= PieceSquareTables.midgame(index, square);
+        endgameScore -= PieceSquareTables.endgame(index, square);
+        phase -= PieceSquareTables.phaseWeight(index);
+        if (piece.getPieceType() == PieceType.KING) {
+            updateKingSquare(piece.getTeamColor(), index);
+        }
+    }
+
+    // If a test board has two kings of one color, the one on the lowest square is tracked,
+    // which is the same king a row-by-row search would find first
+    private void updateKingSquare(TeamColor color, int index) {
+        long kings = pieceBits[index];
+        kingSquares[color.ordinal()] = kings == 0 ? -1 : Long.numberOfTrailingZeros(kings);
+    }
+
+    /**
+     * Rebuilds the bitboards if the squares array was replaced since they were last built,
+     * which happens after deserialization
+     */
+    private void ensureIndexed() {
+        if (indexedBoard != board) {
+            rebuildIndex();
+        }
+    }
+
+    private void rebuildIndex() {
+        pieceBits = new long[12];
+        colorBits = new long[2];
+        positionKey = 0L;
+        kingSquares = new int[] {-1, -1};
+        midgameScore = 0;
+        endgameScore = 0;
+        phase = 0;
+        for (ChessPosition[] boardRow : board) {
+            for (ChessPosition square : boardRow) {
+                if (square.getPiece() != null) {
+                    addBits(square.getPiece(), 1L << Bitboards.square(square));
+                }
+            }
+        }
+        indexedBoard = board;
+    }
+
     /**
      * Sets the board to the default starting board
      * (How the game of chess normally starts)
@@ -115,6 +506,8 @@ public class ChessBoard implements Cloneable {
         //kings
         board[0][4].setPiece(new ChessPiece(TeamColor.WHITE, PieceType.KING));
         board[7][4].setPiece(new ChessPiece(TeamColor.BLACK, PieceType.KING));
+
+        rebuildIndex();
     }
 
     @Override
@@ -128,7 +521,15 @@ public class ChessBoard implements Cloneable {
                     clonedBoard[i][j] = getSquare(new ChessPosition(i+1, j+1)).clone();
                 }
             }
-            cloned.setBoard(clonedBoard);
+            cloned.board = clonedBoard;
+            if (indexedBoard == board) {
+                cloned.pieceBits = pieceBits.clone();
+                cloned.colorBits = colorBits.clone();
+                cloned.kingSquares = kingSquares.clone();
+                cloned.indexedBoard = clonedBoard;
+            } else {
+                cloned.indexedBoard = null;
+            }
 
             return cloned;
         } catch (CloneNotSupportedException e) {
@@ -143,11 +544,15 @@ public class ChessBoard implements Cloneable {
             return false;
         }
         ChessBoard that = (ChessBoard) o;
+        if (getPositionKey() != that.getPositionKey()) {
+            return false;
+        }
         return Objects.deepEquals(board, that.board);
     }
 
     @Override
     public int hashCode() {
-        return Arrays.deepHashCode(board);
+        long key = getPositionKey();
+        return (int) (key ^ (key >>> 32));
     }
 }
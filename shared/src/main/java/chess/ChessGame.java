@@ -1,5 +1,6 @@
 package chess;
 
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.Objects;
@@ -10,11 +11,37 @@ import java.util.Objects;
  * Note: You can add to this class, but you may not alter
  * signature of the existing methods.
  */
-public class ChessGame {
+public class ChessGame implements Cloneable {
     TeamColor teamTurn;
     ChessBoard board;
     Boolean gameOver;
 
+    // Enough for the fifty-move rule, since a repetition cannot reach back past a pawn move
+    // or capture. A power of two, so a ply count maps to its slot with a mask.
+    static final int KEY_HISTORY_SIZE = 128;
+    public static final int FIFTY_MOVE_PLIES = 100;
+
+    // Keys of the positions before each move, in a ring indexed by ply count, counting from
+    // when the board was set or the game was loaded. Left out of the JSON form, which goes
+    // out with every LOAD_GAME message; GameCodec saves the keys a repetition can still match.
+    private transient long[] keyHistory = new long[KEY_HISTORY_SIZE];
+    private transient int plyCount = 0;
+    // Moves since the last capture or pawn move
+    private int halfmoveClock = 0;
+    // Plies played since the start of the game, including any before it was set up from FEN
+    private int plyNumber = 0;
+
+    // Undo records for moves made with doMove, newest last. Each is a board undo record,
+    // with the team whose turn it was stored above it and the halfmove clock before the
+    // move in the high 32 bits.
+    private transient long[] undoStack = new long[64];
+    private transient int undoCount = 0;
+    private static final int UNDO_TURN_SHIFT = 24;
+    private static final int UNDO_CLOCK_SHIFT = 32;
+    private transient MoveGenerator moveGenerator = new MoveGenerator();
+    private transient GameStatus cachedStatus;
+    private transient long cachedStatusKey;
+
     public ChessGame() {
         gameOver = false;
         teamTurn = TeamColor.WHITE;
@@ -44,6 +71,7 @@ public class ChessGame {
      */
     public void setTeamTurn(TeamColor team) {
         teamTurn = team;
+        cachedStatus = null;
     }
 
     /**
@@ -69,24 +97,53 @@ public class ChessGame {
         if (currentPieceOriginal == null) {
             return null;
         }
-        Collection<ChessMove> potentialMoves = currentPieceOriginal.pieceMoves(board, startPosition);
+        MoveGenerator generator = moveGenerator.reset(board, currentPieceOriginal.getTeamColor());
+        long targets = generator.legalTargets(Bitboards.square(startPosition), currentPieceOriginal);
         HashSet<ChessMove> verifiedMoves = new HashSet<>();
-        // take out everything that could lead to check
-        for (ChessMove move : potentialMoves) {
-            ChessBoard boardCopy = board.clone();
-            ChessPiece currentPiece = boardCopy.getPiece(move.getStartPosition());
-            boardCopy.addPiece(move.getStartPosition(), null);
-            if (move.getPromotionPiece() != null) {
-                currentPiece = new ChessPiece(currentPieceOriginal.getTeamColor(), move.getPromotionPiece());
-            }
-            boardCopy.addPiece(move.getEndPosition(), currentPiece);
-            if (!isInCheckHelper(currentPieceOriginal.getTeamColor(), boardCopy)) {
-                verifiedMoves.add(move);
-            }
-        }
+        MoveGenerator.addMoves(currentPieceOriginal, startPosition, targets, verifiedMoves);
         return verifiedMoves;
     }
 
+    /**
+     * Gets every legal move for one team in a single pass over the board. The moves are
+     * generated up front as packed moves, and each ChessMove is only built when iterated.
+     *
+     * @param teamColor the team to get moves for
+     * @return read-only collection of the team's legal moves, empty if the game is over
+     */
+    public Collection<ChessMove> legalMoves(TeamColor teamColor) {
+        if (gameOver) {
+            return new LegalMoves(new int[0]);
+        }
+        MoveList moves = new MoveList();
+        moveGenerator.reset(board, teamColor).generate(moves);
+        return new LegalMoves(moves.toArray());
+    }
+
+    /**
+     * Counts the legal moves for one team without building any move objects
+     *
+     * @param teamColor the team to count moves for
+     * @return the number of legal moves, or 0 if the game is over
+     */
+    public int legalMoveCount(TeamColor teamColor) {
+        if (gameOver) {
+            return 0;
+        }
+        return moveGenerator.reset(board, teamColor).count();
+    }
+
+    /**
+     * Gets the Zobrist key of the current position: the board's key with whose turn it is
+     * folded in. The key is updated as pieces move, so this is cheap to call.
+     *
+     * @return 64-bit key of the position
+     */
+    public long getPositionKey() {
+        long key = board.getPositionKey();
+        return teamTurn == TeamColor.BLACK ? key ^ Zobrist.BLACK_TO_MOVE : key;
+    }
+
     /**
      * Makes a move in a chess game
      *
@@ -97,25 +154,125 @@ public class ChessGame {
         if (gameOver) {
             throw new InvalidMoveException("Invalid Move: game over");
         }
+        // checked before packing, since an off-board square would pack as a different square
+        if (!isOnBoard(move.getStartPosition()) || !isOnBoard(move.getEndPosition())) {
+            throw new InvalidMoveException("Invalid Move: square is off the board");
+        }
+        ChessPiece.PieceType promotion = move.getPromotionPiece();
+        if (promotion == ChessPiece.PieceType.KING || promotion == ChessPiece.PieceType.PAWN) {
+            throw new InvalidMoveException("Invalid Move: cannot promote to " + promotion);
+        }
         ChessPiece currentPiece = board.getPiece(move.getStartPosition());
-        Collection<ChessMove> validatedMoves = validMoves(move.getStartPosition());
-        if (validatedMoves == null) {
+        if (currentPiece == null) {
             throw new InvalidMoveException("Invalid Move");
-        } else if (!validatedMoves.contains(move)) {
+        }
+        int packedMove = Move.of(move);
+        if (!moveGenerator.reset(board, currentPiece.getTeamColor()).isLegal(packedMove)) {
             throw new InvalidMoveException("Invalid Move");
         } else if (teamTurn != currentPiece.getTeamColor()) {
             throw new InvalidMoveException("Invalid Move: wrong team's turn");
         }
-        board.addPiece(move.getStartPosition(), null);
-        if (move.getPromotionPiece() != null) {
-            currentPiece = new ChessPiece(currentPiece.getTeamColor(), move.getPromotionPiece());
+        doMove(packedMove);
+    }
+
+    private static boolean isOnBoard(ChessPosition position) {
+        return position != null && position.getRow() >= 1 && position.getRow() <= 8
+                && position.getColumn() >= 1 && position.getColumn() <= 8;
+    }
+
+    /**
+     * Makes a move in place without checking that it is legal, and remembers how to take
+     * it back. Meant for callers that already have a legal move, such as one from validMoves,
+     * and want to walk a line of play and return without copying the board.
+     *
+     * @param move chess move to perform
+     */
+    public void doMove(ChessMove move) {
+        doMove(Move.of(move));
+    }
+
+    /**
+     * Makes a packed move (see {@link Move}) in place; see {@link #doMove(ChessMove)}
+     *
+     * @param move the packed move to perform
+     */
+    public void doMove(int move) {
+        doMove(Move.from(move), Move.to(move), Move.promotion(move));
+    }
+
+    /**
+     * Makes a move in place by square index; see {@link #doMove(ChessMove)}
+     */
+    void doMove(int from, int to, ChessPiece.PieceType promotion) {
+        // a pawn move or a capture can never be undone over the board
+        boolean irreversible = (board.pieces(teamTurn, ChessPiece.PieceType.PAWN) & (1L << from)) != 0
+                || (board.occupied() & (1L << to)) != 0;
+        keyHistory[plyCount & (KEY_HISTORY_SIZE - 1)] = getPositionKey();
+        plyCount++;
+        plyNumber++;
+
+        long record = board.doMove(from, to, promotion) | (teamTurn.ordinal() << UNDO_TURN_SHIFT)
+                | ((long) halfmoveClock << UNDO_CLOCK_SHIFT);
+        if (undoCount == undoStack.length) {
+            undoStack = Arrays.copyOf(undoStack, undoCount * 2);
         }
-        board.addPiece(move.getEndPosition(), currentPiece);
-        if (teamTurn == TeamColor.BLACK) {
-            setTeamTurn(TeamColor.WHITE);
-        } else {
-            setTeamTurn(TeamColor.BLACK);
+        undoStack[undoCount++] = record;
+        halfmoveClock = irreversible ? 0 : halfmoveClock + 1;
+        teamTurn = otherTeam(teamTurn);
+        cachedStatus = null;
+    }
+
+    /**
+     * Takes back the most recent move made with doMove or makeMove, restoring the captured
+     * piece, the pawn if it was promoted, and whose turn it was
+     *
+     * @throws IllegalStateException if there is no move to take back
+     */
+    public void undoMove() {
+        if (undoCount == 0) {
+            throw new IllegalStateException("No move to undo");
         }
+        long record = undoStack[--undoCount];
+        board.undoMove((int) record);
+        teamTurn = TeamColor.values()[(int) record >>> UNDO_TURN_SHIFT];
+        halfmoveClock = (int) (record >>> UNDO_CLOCK_SHIFT);
+        plyCount--;
+        plyNumber--;
+        cachedStatus = null;
+    }
+
+    /**
+     * @return the number of moves made since the last capture or pawn move
+     */
+    public int getHalfmoveClock() {
+        return halfmoveClock;
+    }
+
+    /**
+     * Counts how many times the current position, with the same team to move, has been seen
+     * before. Only positions since the last capture or pawn move are looked at, since none
+     * before it can come back. A game read back from JSON starts with no earlier positions;
+     * one read back with {@link GameCodec} keeps them.
+     *
+     * @return the number of earlier occurrences of the current position
+     */
+    public int repetitionCount() {
+        long key = getPositionKey();
+        int count = 0;
+        int lookBack = Math.min(Math.min(halfmoveClock, plyCount), KEY_HISTORY_SIZE - 1);
+        for (int back = 2; back <= lookBack; back += 2) {
+            if (keyHistory[(plyCount - back) & (KEY_HISTORY_SIZE - 1)] == key) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * @return how many moves can currently be taken back with undoMove
+     */
+    public int getUndoCount() {
+        return undoCount;
     }
 
     /**
@@ -135,61 +292,15 @@ public class ChessGame {
      * @return True if the specified team is in check on the specified board
      */
     private boolean isInCheckHelper(TeamColor teamColor, ChessBoard board) {
-        ChessPosition kingPosition = findKing(teamColor, board);
-        if (kingPosition == null) {
+        int kingSquare = board.kingSquare(teamColor);
+        if (kingSquare < 0) {
             return true; // This should never actually happen, but it yells at me if it's not there
         }
-        for (ChessPosition[] row : board.getBoard()) {
-            for (ChessPosition square : row) {
-                if (square.getPiece() != null) {
-                    if (checkSquareDanger(teamColor, board, square, kingPosition)) {
-                        return true;
-                    }
-                }
-            }
-        }
-        return false;
-    }
-
-    private static boolean checkSquareDanger(TeamColor teamColor, ChessBoard board, ChessPosition square, ChessPosition kingPosition) {
-        if (square.getPiece().getTeamColor() != teamColor) {
-            Collection<ChessMove> potentialMoves = square.getPiece().pieceMoves(board, square);
-            for (ChessMove move : potentialMoves) {
-                if (move.getEndPosition().getColumn() == kingPosition.getColumn() &&
-                        move.getEndPosition().getRow() == kingPosition.getRow()) {
-                    return true;
-                }
-            }
-        }
-        return false;
-    }
-
-    /**
-     * Finds the position of the king
-     * @param teamColor the color of the king to be found
-     * @param board which board to search
-     * @return the position of the king
-     */
-    private ChessPosition findKing(TeamColor teamColor, ChessBoard board) {
-        for (ChessPosition[] row : board.getBoard()) {
-            for (ChessPosition square : row) {
-                if (square.getPiece() != null) {
-                    ChessPosition square1 = checkSquareForKing(teamColor, square);
-                    if (square1 != null) {
-                        return square1;
-                    }
-                }
-            }
-        }
-        return null; // to clarify, this should never happen
+        return board.isSquareAttacked(kingSquare, otherTeam(teamColor));
     }
 
-    private static ChessPosition checkSquareForKing(TeamColor teamColor, ChessPosition square) {
-        if (square.getPiece().getPieceType() == ChessPiece.PieceType.KING &&
-                square.getPiece().getTeamColor() == teamColor) {
-            return square;
-        }
-        return null;
+    private static TeamColor otherTeam(TeamColor teamColor) {
+        return teamColor == TeamColor.WHITE ? TeamColor.BLACK : TeamColor.WHITE;
     }
 
     /**
@@ -202,7 +313,7 @@ public class ChessGame {
         if (!isInCheck(teamColor)) {
             return false;
         }
-        return cannotMove(teamColor);
+        return !hasLegalMove(teamColor);
     }
 
     /**
@@ -216,32 +327,81 @@ public class ChessGame {
         if (isInCheck(teamColor)) {
             return false;
         }
-        return cannotMove(teamColor);
+        return !hasLegalMove(teamColor);
     }
 
-    private boolean cannotMove(TeamColor teamColor) {
-        for (ChessPosition[] row : board.getBoard()) {
-            for (ChessPosition square : row) {
-                if (square.getPiece() != null) {
-                    if (checkSquareMoves(teamColor, square)) {
-                        return false;
-                    }
-                }
-            }
+    /**
+     * Works out check, checkmate, stalemate and draws for the team to move in one pass over
+     * its legal moves, stopping at the first legal move found. Checkmate and stalemate come
+     * before the draw rules, so a mate on the fiftieth move still wins. The result is
+     * remembered until the game changes, so asking again before the next move is free.
+     *
+     * @return the status of the game for the team whose turn it is
+     */
+    public GameStatus evaluateStatus() {
+        long positionKey = getPositionKey();
+        if (cachedStatus != null && cachedStatusKey == positionKey) {
+            return cachedStatus;
         }
-        return true;
+        GameStatus.Result result;
+        boolean inCheck = isInCheck(teamTurn);
+        if (!hasLegalMove(teamTurn)) {
+            result = inCheck ? GameStatus.Result.CHECKMATE : GameStatus.Result.STALEMATE;
+        } else if (hasInsufficientMaterial()) {
+            result = GameStatus.Result.DRAW;
+        } else if (repetitionCount() >= 2) {
+            result = GameStatus.Result.REPETITION;
+        } else if (halfmoveClock >= FIFTY_MOVE_PLIES) {
+            result = GameStatus.Result.FIFTY_MOVES;
+        } else {
+            result = inCheck ? GameStatus.Result.CHECK : GameStatus.Result.ONGOING;
+        }
+        cachedStatus = new GameStatus(result, teamTurn);
+        cachedStatusKey = positionKey;
+        return cachedStatus;
     }
 
-    private boolean checkSquareMoves(TeamColor teamColor, ChessPosition square) {
-        if (square.getPiece().getTeamColor() == teamColor) {
-            Collection<ChessMove> potentialMoves = validMoves(square);
-            if (!potentialMoves.isEmpty()) {
+    /**
+     * Looks the position up in the installed endgame bitbases. Unlike {@link #evaluateStatus()},
+     * this tells whether a side can force a win, not whether the game is over: a drawn
+     * king and pawn ending is still played out.
+     *
+     * @return the result with perfect play for the side to move, or UNKNOWN if no bitbases are
+     * installed or the position is not in them
+     */
+    public Bitbases.Outcome endgameOutcome() {
+        Bitbases bitbases = Bitbases.installed();
+        return bitbases == null ? Bitbases.Outcome.UNKNOWN : bitbases.probe(board, teamTurn);
+    }
+
+    private boolean hasLegalMove(TeamColor teamColor) {
+        MoveGenerator generator = moveGenerator.reset(board, teamColor);
+        long pieces = board.pieces(teamColor);
+        while (pieces != 0) {
+            int square = Long.numberOfTrailingZeros(pieces);
+            if (generator.legalTargets(square, board.getPiece(square)) != 0) {
                 return true;
             }
+            pieces &= pieces - 1;
         }
         return false;
     }
 
+    /**
+     * @return whether neither side has enough material left to ever checkmate:
+     * bare kings, or bare kings plus a single bishop or knight
+     */
+    private boolean hasInsufficientMaterial() {
+        long kings = board.pieces(TeamColor.WHITE, ChessPiece.PieceType.KING)
+                | board.pieces(TeamColor.BLACK, ChessPiece.PieceType.KING);
+        long minors = 0L;
+        for (TeamColor color : TeamColor.values()) {
+            minors |= board.pieces(color, ChessPiece.PieceType.BISHOP) | board.pieces(color, ChessPiece.PieceType.KNIGHT);
+        }
+        long others = board.occupied() & ~kings;
+        return others == (others & minors) && Long.bitCount(others) <= 1;
+    }
+
     /**
      * Sets this game's chessboard with a given board
      *
@@ -249,6 +409,85 @@ public class ChessGame {
      */
     public void setBoard(ChessBoard board) {
         this.board = board;
+        undoCount = 0;
+        plyCount = 0;
+        halfmoveClock = 0;
+        plyNumber = 0;
+        cachedStatus = null;
+    }
+
+    /**
+     * Sets the clocks of a game set up part way through, as read from a FEN string
+     *
+     * @param halfmoveClock moves since the last capture or pawn move
+     * @param plyNumber plies played before the current position
+     */
+    void setClocks(int halfmoveClock, int plyNumber) {
+        this.halfmoveClock = halfmoveClock;
+        this.plyNumber = plyNumber;
+        cachedStatus = null;
+    }
+
+    /**
+     * @return plies played since the start of the game, counting any before it was set up
+     * from FEN or a saved game
+     */
+    public int getPlyNumber() {
+        return plyNumber;
+    }
+
+    /**
+     * @return how many earlier position keys a repetition could still match, the ones
+     * {@link #recentKey} can return
+     */
+    int recentKeyCount() {
+        return Math.min(Math.min(halfmoveClock, plyCount), KEY_HISTORY_SIZE - 1);
+    }
+
+    /**
+     * @param back how many plies back, from 1 to {@link #recentKeyCount}
+     * @return the key of the position that many plies before the current one
+     */
+    long recentKey(int back) {
+        return keyHistory[(plyCount - back) & (KEY_HISTORY_SIZE - 1)];
+    }
+
+    /**
+     * Restores the clocks and recent position keys of a saved game, after its board and turn
+     * have been set
+     *
+     * @param halfmoveClock moves since the last capture or pawn move
+     * @param plyNumber plies played since the start of the game
+     * @param recentKeys earlier position keys, the one just before the current position first
+     */
+    void restoreHistory(int halfmoveClock, int plyNumber, long[] recentKeys) {
+        plyCount = recentKeys.length;
+        this.plyNumber = plyNumber;
+        this.halfmoveClock = halfmoveClock;
+        for (int back = 1; back <= recentKeys.length; back++) {
+            keyHistory[plyCount - back] = recentKeys[back - 1];
+        }
+        cachedStatus = null;
+    }
+
+    /**
+     * Writes the game as a FEN string; see {@link Fen}
+     *
+     * @return the FEN string
+     */
+    public String toFen() {
+        return Fen.write(this);
+    }
+
+    /**
+     * Sets up a game from a FEN string; see {@link Fen}
+     *
+     * @param fen the FEN string
+     * @return the game
+     * @throws IllegalArgumentException if the string is not valid FEN
+     */
+    public static ChessGame fromFen(String fen) {
+        return Fen.parse(fen);
     }
 
     /**
@@ -260,6 +499,27 @@ public class ChessGame {
         return board;
     }
 
+    /**
+     * Copies the game, including its position history, so the copy can be played on without
+     * changing this one. Moves made before the copy cannot be taken back in the copy.
+     *
+     * @return the copy
+     */
+    @Override
+    public ChessGame clone() {
+        try {
+            ChessGame cloned = (ChessGame) super.clone();
+            cloned.board = board.clone();
+            cloned.keyHistory = keyHistory.clone();
+            cloned.undoStack = new long[64];
+            cloned.undoCount = 0;
+            cloned.moveGenerator = new MoveGenerator();
+            return cloned;
+        } catch (CloneNotSupportedException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
     @Override
     public boolean equals(Object o) {
         if (o == null || getClass() != o.getClass()) {
@@ -271,6 +531,7 @@ public class ChessGame {
 
     @Override
     public int hashCode() {
-        return Objects.hash(teamTurn, board);
+        long key = getPositionKey();
+        return (int) (key ^ (key >>> 32));
     }
 }
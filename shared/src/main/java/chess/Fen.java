@@ -0,0 +1,206 @@
+package chess;
+
+import chess.ChessGame.TeamColor;
+import chess.ChessPiece.PieceType;
+
+/**
+ * Reads and writes Forsyth-Edwards Notation, the standard one-line text form of a position:
+ * the pieces rank by rank from the eighth, the side to move, castling rights, the en passant
+ * square, the halfmove clock and the move number, separated by spaces. For example the
+ * starting position is
+ * <pre>rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1</pre>
+ * This game has no castling or en passant, so those fields are checked when read but then
+ * ignored, and always written as "-". The two clocks may be left off when reading.
+ * <p>
+ * Parsing is a single pass over the characters and writing fills one presized builder, so
+ * both are cheap enough to use for every move sent or stored.
+ */
+public final class Fen {
+
+    // Indexed by color * 6 + PieceType ordinal: KING, QUEEN, BISHOP, KNIGHT, ROOK, PAWN
+    private static final String PIECE_CHARS = "KQBNRPkqbnrp";
+    private static final ChessPiece[] PIECES = new ChessPiece[PIECE_CHARS.length()];
+    // The longest FEN is 8 ranks of 8 pieces and slashes, plus the other fields
+    private static final int MAX_LENGTH = 71 + 20;
+
+    static {
+        for (TeamColor color : TeamColor.values()) {
+            for (PieceType type : PieceType.values()) {
+                PIECES[color.ordinal() * 6 + type.ordinal()] = new ChessPiece(color, type);
+            }
+        }
+    }
+
+    private Fen() {}
+
+    /**
+     * Writes a game as FEN
+     *
+     * @param game the game
+     * @return the FEN string, with "-" for castling and en passant
+     */
+    public static String write(ChessGame game) {
+        StringBuilder fen = new StringBuilder(MAX_LENGTH);
+        ChessBoard board = game.getBoard();
+        for (int row = 7; row >= 0; row--) {
+            int empty = 0;
+            for (int col = 0; col < 8; col++) {
+                ChessPiece piece = board.getPiece(row * 8 + col);
+                if (piece == null) {
+                    empty++;
+                    continue;
+                }
+                if (empty > 0) {
+                    fen.append((char) ('0' + empty));
+                    empty = 0;
+                }
+                fen.append(PIECE_CHARS.charAt(piece.getTeamColor().ordinal() * 6 + piece.getPieceType().ordinal()));
+            }
+            if (empty > 0) {
+                fen.append((char) ('0' + empty));
+            }
+            if (row > 0) {
+                fen.append('/');
+            }
+        }
+        fen.append(game.getTeamTurn() == TeamColor.WHITE ? " w - - " : " b - - ")
+                .append(game.getHalfmoveClock()).append(' ')
+                .append(game.getPlyNumber() / 2 + 1);
+        return fen.toString();
+    }
+
+    /**
+     * Sets up a game from FEN. The game starts with no moves to take back and no earlier
+     * positions, so a repetition only counts positions played after it.
+     *
+     * @param fen the FEN string
+     * @return a new game in that position
+     * @throws IllegalArgumentException if the string is not valid FEN
+     */
+    public static ChessGame parse(String fen) {
+        ChessBoard board = new ChessBoard();
+        int length = fen.length();
+        int i = 0;
+        int row = 7;
+        int col = 0;
+        for (; i < length && fen.charAt(i) != ' '; i++) {
+            char c = fen.charAt(i);
+            if (c == '/') {
+                if (col != 8 || row == 0) {
+                    throw invalid(fen, "wrong number of squares before rank " + row);
+                }
+                row--;
+                col = 0;
+            } else if (c >= '1' && c <= '8') {
+                col += c - '0';
+                if (col > 8) {
+                    throw invalid(fen, "rank " + (row + 1) + " is too long");
+                }
+            } else {
+                int piece = PIECE_CHARS.indexOf(c);
+                if (piece < 0 || col == 8) {
+                    throw invalid(fen, "unexpected '" + c + "' in rank " + (row + 1));
+                }
+                board.addPiece(row * 8 + col++, PIECES[piece]);
+            }
+        }
+        if (row != 0 || col != 8) {
+            throw invalid(fen, "the board does not have 8 full ranks");
+        }
+
+        i = skipSpace(fen, i);
+        int end = fieldEnd(fen, i);
+        if (end != i + 1 || (fen.charAt(i) != 'w' && fen.charAt(i) != 'b')) {
+            throw invalid(fen, "the side to move must be w or b");
+        }
+        boolean blackToMove = fen.charAt(i) == 'b';
+
+        int halfmoveClock = 0;
+        int fullmoveNumber = 1;
+        i = skipSpace(fen, end);
+        if (i < length) {
+            end = fieldEnd(fen, i);
+            checkCastling(fen, i, end);
+            i = skipSpace(fen, end);
+            end = fieldEnd(fen, i);
+            checkEnPassant(fen, i, end);
+            i = skipSpace(fen, end);
+            if (i < length) {
+                end = fieldEnd(fen, i);
+                halfmoveClock = parseNumber(fen, i, end);
+                i = skipSpace(fen, end);
+                end = fieldEnd(fen, i);
+                fullmoveNumber = parseNumber(fen, i, end);
+                if (fullmoveNumber < 1) {
+                    throw invalid(fen, "the move number starts at 1");
+                }
+                if (skipSpace(fen, end) < length) {
+                    throw invalid(fen, "unexpected text after the move number");
+                }
+            }
+        }
+
+        ChessGame game = new ChessGame();
+        game.setBoard(board);
+        game.setTeamTurn(blackToMove ? TeamColor.BLACK : TeamColor.WHITE);
+        game.setClocks(halfmoveClock, 2 * (fullmoveNumber - 1) + (blackToMove ? 1 : 0));
+        return game;
+    }
+
+    private static int skipSpace(String fen, int i) {
+        while (i < fen.length() && fen.charAt(i) == ' ') {
+            i++;
+        }
+        return i;
+    }
+
+    private static int fieldEnd(String fen, int i) {
+        if (i == fen.length()) {
+            throw invalid(fen, "fields are missing");
+        }
+        while (i < fen.length() && fen.charAt(i) != ' ') {
+            i++;
+        }
+        return i;
+    }
+
+    private static void checkCastling(String fen, int start, int end) {
+        if (end == start + 1 && fen.charAt(start) == '-') {
+            return;
+        }
+        for (int i = start; i < end; i++) {
+            if ("KQkq".indexOf(fen.charAt(i)) < 0) {
+                throw invalid(fen, "castling rights must be - or letters from KQkq");
+            }
+        }
+    }
+
+    private static void checkEnPassant(String fen, int start, int end) {
+        if (end == start + 1 && fen.charAt(start) == '-') {
+            return;
+        }
+        if (end != start + 2 || fen.charAt(start) < 'a' || fen.charAt(start) > 'h'
+                || (fen.charAt(start + 1) != '3' && fen.charAt(start + 1) != '6')) {
+            throw invalid(fen, "the en passant square must be - or a square on rank 3 or 6");
+        }
+    }
+
+    private static int parseNumber(String fen, int start, int end) {
+        if (end - start > 6) {
+            throw invalid(fen, "number too large");
+        }
+        int value = 0;
+        for (int i = start; i < end; i++) {
+            char c = fen.charAt(i);
+            if (c < '0' || c > '9') {
+                throw invalid(fen, "expected a number");
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    private static IllegalArgumentException invalid(String fen, String reason) {
+        return new IllegalArgumentException("Invalid FEN \"" + fen + "\": " + reason);
+    }
+}
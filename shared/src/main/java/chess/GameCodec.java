@@ -0,0 +1,107 @@
+package chess;
+
+import chess.ChessGame.TeamColor;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+
+/**
+ * Packs a game into a few dozen bytes for storage, in place of the Gson form that spells out
+ * every square. The first byte is the format version, so stored games stay readable if the
+ * layout changes. Version 1 is, in order:
+ * <ul>
+ *     <li>the version (1 byte)</li>
+ *     <li>flags: bit 0 set if black is to move, bit 1 set if the game is over (1 byte)</li>
+ *     <li>the board, 4 bits a square from a1 to h8, low half of each byte first, holding 0
+ *     for an empty square or {@link ChessBoard#pieceCode} (32 bytes)</li>
+ *     <li>the halfmove clock (2 bytes) and the number of plies played (4 bytes)</li>
+ *     <li>the number of earlier position keys that follow (1 byte), then the keys, newest
+ *     first (8 bytes each)</li>
+ * </ul>
+ * The keys are the positions since the last capture or pawn move, which is all repetition
+ * checks look at, so a game just after a capture or pawn move takes 41 bytes. Multi-byte
+ * values are big-endian.
+ */
+public final class GameCodec {
+
+    public static final byte VERSION = 1;
+
+    private static final int BLACK_TO_MOVE = 1;
+    private static final int GAME_OVER = 2;
+    private static final int FIXED_BYTES = 1 + 1 + 32 + 2 + 4 + 1;
+
+    private GameCodec() {}
+
+    /**
+     * @param game the game to pack
+     * @return the packed game
+     */
+    public static byte[] encode(ChessGame game) {
+        int keyCount = game.recentKeyCount();
+        ByteBuffer bytes = ByteBuffer.allocate(FIXED_BYTES + keyCount * Long.BYTES);
+        bytes.put(VERSION);
+        bytes.put((byte) ((game.getTeamTurn() == TeamColor.BLACK ? BLACK_TO_MOVE : 0)
+                | (Boolean.TRUE.equals(game.getGameOver()) ? GAME_OVER : 0)));
+        ChessBoard board = game.getBoard();
+        for (int square = 0; square < 64; square += 2) {
+            bytes.put((byte) (ChessBoard.pieceCode(board.getPiece(square))
+                    | ChessBoard.pieceCode(board.getPiece(square + 1)) << 4));
+        }
+        bytes.putShort((short) Math.min(game.getHalfmoveClock(), 0xFFFF));
+        bytes.putInt(game.getPlyNumber());
+        bytes.put((byte) keyCount);
+        for (int back = 1; back <= keyCount; back++) {
+            bytes.putLong(game.recentKey(back));
+        }
+        return bytes.array();
+    }
+
+    /**
+     * @param data a game packed by {@link #encode}
+     * @return a new game, with no moves to take back
+     * @throws IllegalArgumentException if the data is not a packed game, or is from a newer version
+     */
+    public static ChessGame decode(byte[] data) {
+        if (data.length == 0 || data[0] != VERSION) {
+            throw new IllegalArgumentException("Unknown game encoding version: "
+                    + (data.length == 0 ? "empty" : data[0]));
+        }
+        try {
+            ByteBuffer bytes = ByteBuffer.wrap(data, 1, data.length - 1);
+            int flags = bytes.get();
+            ChessBoard board = new ChessBoard();
+            for (int square = 0; square < 64; square += 2) {
+                int pair = bytes.get() & 0xFF;
+                placePiece(board, square, pair & 0xF);
+                placePiece(board, square + 1, pair >>> 4);
+            }
+            int halfmoveClock = bytes.getShort() & 0xFFFF;
+            int plyNumber = bytes.getInt();
+            long[] recentKeys = new long[bytes.get() & 0xFF];
+            if (recentKeys.length >= ChessGame.KEY_HISTORY_SIZE || bytes.remaining() != recentKeys.length * Long.BYTES) {
+                throw new IllegalArgumentException("Packed game has the wrong length: " + data.length);
+            }
+            for (int i = 0; i < recentKeys.length; i++) {
+                recentKeys[i] = bytes.getLong();
+            }
+
+            ChessGame game = new ChessGame();
+            game.setBoard(board);
+            game.setTeamTurn((flags & BLACK_TO_MOVE) != 0 ? TeamColor.BLACK : TeamColor.WHITE);
+            game.setGameOver((flags & GAME_OVER) != 0);
+            game.restoreHistory(halfmoveClock, plyNumber, recentKeys);
+            return game;
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Packed game is truncated: " + data.length + " bytes");
+        }
+    }
+
+    private static void placePiece(ChessBoard board, int square, int code) {
+        if (code > 12) {
+            throw new IllegalArgumentException("Bad piece code " + code + " on square " + square);
+        }
+        if (code != 0) {
+            board.addPiece(square, ChessBoard.pieceForCode(code));
+        }
+    }
+}
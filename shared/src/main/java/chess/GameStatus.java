@@ -0,0 +1,31 @@
+package chess;
+
+/**
+ * The state of a game for the team whose turn it is
+ *
+ * @param result whether the game goes on, and why not if it is over
+ * @param team the team the result applies to: the team in check, checkmated or stalemated.
+ *             For draws and ongoing games this is the team to move.
+ */
+public record GameStatus(Result result, ChessGame.TeamColor team) {
+
+    public enum Result {
+        ONGOING,
+        CHECK,
+        CHECKMATE,
+        STALEMATE,
+        // draw by insufficient material
+        DRAW,
+        // draw by the same position coming up a third time with the same team to move
+        REPETITION,
+        // draw by fifty moves each without a capture or pawn move
+        FIFTY_MOVES
+    }
+
+    /**
+     * @return whether no more moves can be made
+     */
+    public boolean isGameOver() {
+        return result != Result.ONGOING && result != Result.CHECK;
+    }
+}
@@ -0,0 +1,61 @@
+package chess;
+
+import java.util.AbstractCollection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * A read-only collection of legal moves, held as packed moves. ChessMove objects are only
+ * built as the collection is iterated, so callers that just need the size or stop early
+ * never pay for the rest.
+ * <p>
+ * The moves are a snapshot of the position when the collection was made, so it stays
+ * valid after the game moves on.
+ */
+final class LegalMoves extends AbstractCollection<ChessMove> {
+
+    private final int[] moves;
+
+    LegalMoves(int[] moves) {
+        this.moves = moves;
+    }
+
+    @Override
+    public Iterator<ChessMove> iterator() {
+        return new Iterator<>() {
+            private int index = 0;
+
+            @Override
+            public boolean hasNext() {
+                return index < moves.length;
+            }
+
+            @Override
+            public ChessMove next() {
+                if (index >= moves.length) {
+                    throw new NoSuchElementException();
+                }
+                return Move.toChessMove(moves[index++]);
+            }
+        };
+    }
+
+    @Override
+    public int size() {
+        return moves.length;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        if (!(o instanceof ChessMove move)) {
+            return false;
+        }
+        int wanted = Move.of(move);
+        for (int packed : moves) {
+            if (Move.withoutFlags(packed) == wanted) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,110 @@
+package chess;
+
+import chess.ChessPiece.PieceType;
+
+/**
+ * Packs a move into a single int so move generation and search do not allocate.
+ * <p>
+ * Bits 0-5 hold the start square, bits 6-11 the end square (see {@link Bitboards}),
+ * bits 12-14 the promotion piece (0 for none, otherwise PieceType.ordinal() + 1) and
+ * bit 15 is set when the move captures. {@link ChessMove} objects are only built from
+ * these at the public API boundary.
+ */
+public final class Move {
+
+    /** A value that is never a real move */
+    public static final int NONE = 0;
+
+    public static final int CAPTURE = 1 << 15;
+
+    private static final int TO_SHIFT = 6;
+    private static final int PROMOTION_SHIFT = 12;
+    private static final PieceType[] TYPES = PieceType.values();
+
+    private Move() {}
+
+    /**
+     * @param from the start square index
+     * @param to the end square index
+     * @param promotion the piece a pawn promotes to, or null
+     * @param flags {@link #CAPTURE} or 0
+     * @return the packed move
+     */
+    public static int encode(int from, int to, PieceType promotion, int flags) {
+        int promotionCode = promotion == null ? 0 : promotion.ordinal() + 1;
+        return from | (to << TO_SHIFT) | (promotionCode << PROMOTION_SHIFT) | flags;
+    }
+
+    /**
+     * @return the start square index of a packed move
+     */
+    public static int from(int move) {
+        return move & 63;
+    }
+
+    /**
+     * @return the end square index of a packed move
+     */
+    public static int to(int move) {
+        return (move >>> TO_SHIFT) & 63;
+    }
+
+    /**
+     * @return the promotion piece of a packed move, or null if it is not a promotion
+     */
+    public static PieceType promotion(int move) {
+        int promotionCode = (move >>> PROMOTION_SHIFT) & 7;
+        return promotionCode == 0 ? null : TYPES[promotionCode - 1];
+    }
+
+    /**
+     * @return whether a packed move captures a piece
+     */
+    public static boolean isCapture(int move) {
+        return (move & CAPTURE) != 0;
+    }
+
+    /**
+     * @return the packed move with its flags cleared, for comparing moves by squares and promotion only
+     */
+    public static int withoutFlags(int move) {
+        return move & (CAPTURE - 1);
+    }
+
+    /**
+     * Packs a ChessMove (without flags)
+     * @param move the move to pack
+     * @return the packed move
+     */
+    public static int of(ChessMove move) {
+        return encode(Bitboards.square(move.getStartPosition()), Bitboards.square(move.getEndPosition()),
+                move.getPromotionPiece(), 0);
+    }
+
+    /**
+     * Builds the public ChessMove for a packed move
+     * @param move the packed move
+     * @return a new ChessMove
+     */
+    public static ChessMove toChessMove(int move) {
+        return new ChessMove(Bitboards.position(from(move)), Bitboards.position(to(move)), promotion(move));
+    }
+
+    /**
+     * @return the move in coordinate notation, such as e2e4 or a7a8q
+     */
+    public static String toString(int move) {
+        String text = Bitboards.position(from(move)).toString() + Bitboards.position(to(move));
+        PieceType promotion = promotion(move);
+        if (promotion != null) {
+            text += switch (promotion) {
+                case QUEEN -> "q";
+                case ROOK -> "r";
+                case BISHOP -> "b";
+                case KNIGHT -> "n";
+                default -> "?";
+            };
+        }
+        return text;
+    }
+}
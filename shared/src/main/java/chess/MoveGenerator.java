@@ -0,0 +1,297 @@
+package chess;
+
+import chess.ChessGame.TeamColor;
+import chess.ChessPiece.PieceType;
+
+import java.util.Collection;
+
+/**
+ * Generates legal moves for one team on one position without copying the board.
+ * <p>
+ * Checking pieces, the squares that would block or capture them (the check mask) and
+ * pinned pieces are worked out once per position, and every candidate move is filtered
+ * against them. The results are only valid until the board changes; call reset to reuse
+ * the generator for another position.
+ */
+public class MoveGenerator {
+
+    private static final PieceType[] PROMOTIONS =
+            {PieceType.QUEEN, PieceType.ROOK, PieceType.BISHOP, PieceType.KNIGHT};
+
+    private ChessBoard board;
+    private TeamColor team;
+    private TeamColor enemy;
+    private long occupied;
+    private int kingSquare;
+    private long checkers;
+    private long checkMask;
+    private long pinned;
+
+    public MoveGenerator() {}
+
+    public MoveGenerator(ChessBoard board, TeamColor team) {
+        reset(board, team);
+    }
+
+    /**
+     * Works out the check and pin information for a position
+     * @param board the board being played
+     * @param team the team whose moves will be generated
+     * @return this generator
+     */
+    public MoveGenerator reset(ChessBoard board, TeamColor team) {
+        this.board = board;
+        this.team = team;
+        this.enemy = team == TeamColor.WHITE ? TeamColor.BLACK : TeamColor.WHITE;
+        this.occupied = board.occupied();
+
+        kingSquare = board.kingSquare(team);
+        if (kingSquare < 0) {
+            // a team with no king can never get out of "check", so nothing is legal
+            checkers = 0L;
+            checkMask = 0L;
+            pinned = 0L;
+            return this;
+        }
+
+        long enemyPieces = board.pieces(enemy);
+        long enemyQueens = board.pieces(enemy, PieceType.QUEEN);
+        long straightSliders = board.pieces(enemy, PieceType.ROOK) | enemyQueens;
+        long diagonalSliders = board.pieces(enemy, PieceType.BISHOP) | enemyQueens;
+
+        // look through our own pieces from the king to find sliders pinning one of them
+        long snipers = (Bitboards.rookAttacks(kingSquare, enemyPieces) & straightSliders)
+                | (Bitboards.bishopAttacks(kingSquare, enemyPieces) & diagonalSliders);
+        long foundPinned = 0L;
+        while (snipers != 0) {
+            long blockers = Bitboards.between(kingSquare, Long.numberOfTrailingZeros(snipers)) & occupied;
+            if (Long.bitCount(blockers) == 1 && (blockers & board.pieces(team)) != 0) {
+                foundPinned |= blockers;
+            }
+            snipers &= snipers - 1;
+        }
+
+        checkers = board.attackersTo(kingSquare, enemy);
+        pinned = foundPinned;
+        if (checkers == 0) {
+            checkMask = -1L;
+        } else if (Long.bitCount(checkers) == 1) {
+            checkMask = checkers | Bitboards.between(kingSquare, Long.numberOfTrailingZeros(checkers));
+        } else {
+            checkMask = 0L; // double check, only the king can move
+        }
+        return this;
+    }
+
+    /**
+     * @return whether the team's king is currently attacked
+     */
+    public boolean inCheck() {
+        return checkers != 0;
+    }
+
+    /**
+     * Finds the legal destination squares for the team's piece on a square
+     * @param square the square index of the piece
+     * @param piece the piece on that square
+     * @return bitboard of legal destinations
+     */
+    long legalTargets(int square, ChessPiece piece) {
+        if (kingSquare < 0) {
+            return 0L;
+        }
+        long targets = pseudoTargets(board, piece, square);
+        if (square == kingSquare) {
+            return safeKingTargets(targets);
+        }
+        targets &= checkMask;
+        if ((pinned & (1L << square)) != 0) {
+            targets &= Bitboards.line(kingSquare, square);
+        }
+        return targets;
+    }
+
+    /**
+     * Adds every legal move for the team to a list, as packed moves
+     * @param moves the list to fill; it is not cleared first
+     */
+    public void generate(MoveList moves) {
+        long pieces = board.pieces(team);
+        while (pieces != 0) {
+            int from = Long.numberOfTrailingZeros(pieces);
+            generate(from, board.getPiece(from), moves);
+            pieces &= pieces - 1;
+        }
+    }
+
+    /**
+     * Adds the legal moves of the team's piece on one square to a list, as packed moves
+     * @param from the square index of the piece
+     * @param piece the piece on that square
+     * @param moves the list to fill; it is not cleared first
+     */
+    void generate(int from, ChessPiece piece, MoveList moves) {
+        addMoves(from, piece, legalTargets(from, piece), moves);
+    }
+
+    /**
+     * Adds the legal captures and promotions for the team to a list, as packed moves.
+     * These are the moves a quiescence search looks at.
+     * @param moves the list to fill; it is not cleared first
+     */
+    public void generateCaptures(MoveList moves) {
+        long enemies = board.pieces(enemy);
+        long pieces = board.pieces(team);
+        while (pieces != 0) {
+            int from = Long.numberOfTrailingZeros(pieces);
+            ChessPiece piece = board.getPiece(from);
+            addMoves(from, piece, legalTargets(from, piece) & (enemies | promotionRow(piece)), moves);
+            pieces &= pieces - 1;
+        }
+    }
+
+    private void addMoves(int from, ChessPiece piece, long targets, MoveList moves) {
+        long enemies = board.pieces(enemy);
+        long promotionRow = promotionRow(piece);
+        while (targets != 0) {
+            int to = Long.numberOfTrailingZeros(targets);
+            long target = 1L << to;
+            int flags = (enemies & target) != 0 ? Move.CAPTURE : 0;
+            if ((promotionRow & target) != 0) {
+                for (PieceType promotion : PROMOTIONS) {
+                    moves.add(Move.encode(from, to, promotion, flags));
+                }
+            } else {
+                moves.add(Move.encode(from, to, null, flags));
+            }
+            targets &= targets - 1;
+        }
+    }
+
+    /**
+     * Counts the legal moves for the team from the target masks, without listing them.
+     * A pawn reaching the last row counts once per promotion piece.
+     * @return the number of legal moves
+     */
+    public int count() {
+        int moves = 0;
+        long pieces = board.pieces(team);
+        while (pieces != 0) {
+            int from = Long.numberOfTrailingZeros(pieces);
+            ChessPiece piece = board.getPiece(from);
+            long targets = legalTargets(from, piece);
+            moves += Long.bitCount(targets) + 3 * Long.bitCount(targets & promotionRow(piece));
+            pieces &= pieces - 1;
+        }
+        return moves;
+    }
+
+    /**
+     * Checks a packed move against the legal moves of the team without building any of them
+     * @param move the packed move (flags are ignored)
+     * @return whether the move is legal for the team in this position
+     */
+    public boolean isLegal(int move) {
+        int from = Move.from(move);
+        ChessPiece piece = board.getPiece(from);
+        if (piece == null || piece.getTeamColor() != team) {
+            return false;
+        }
+        int to = Move.to(move);
+        if ((legalTargets(from, piece) & (1L << to)) == 0) {
+            return false;
+        }
+        PieceType promotion = Move.promotion(move);
+        if ((promotionRow(piece) & (1L << to)) != 0) {
+            return promotion != null && promotion != PieceType.KING && promotion != PieceType.PAWN;
+        }
+        return promotion == null;
+    }
+
+    /**
+     * @return the row a piece promotes on, as a bitboard, or 0 if it is not a pawn
+     */
+    static long promotionRow(ChessPiece piece) {
+        if (piece.getPieceType() != PieceType.PAWN) {
+            return 0L;
+        }
+        return piece.getTeamColor() == TeamColor.WHITE ? Bitboards.RANK_8 : Bitboards.RANK_1;
+    }
+
+    /**
+     * Drops the king destinations the enemy attacks. The king is lifted off the board for
+     * the test so it cannot hide behind itself along a slider's ray.
+     */
+    private long safeKingTargets(long targets) {
+        long occupiedWithoutKing = occupied & ~(1L << kingSquare);
+        long safe = 0L;
+        while (targets != 0) {
+            int target = Long.numberOfTrailingZeros(targets);
+            if (!board.isSquareAttacked(target, enemy, occupiedWithoutKing)) {
+                safe |= 1L << target;
+            }
+            targets &= targets - 1;
+        }
+        return safe;
+    }
+
+    /**
+     * Finds every square a piece could move to, ignoring whether the move would leave
+     * its own king in danger
+     * @param board the board being played
+     * @param piece the piece being moved
+     * @param square the square index of the piece
+     * @return bitboard of destinations
+     */
+    static long pseudoTargets(ChessBoard board, ChessPiece piece, int square) {
+        TeamColor color = piece.getTeamColor();
+        if (piece.getPieceType() != PieceType.PAWN) {
+            return Bitboards.attacks(piece.getPieceType(), color, square, board.occupied()) & ~board.pieces(color);
+        }
+
+        long empty = ~board.occupied();
+        long pawn = 1L << square;
+        long targets;
+        if (color == TeamColor.WHITE) {
+            long singlePush = (pawn << 8) & empty;
+            targets = singlePush;
+            if (Bitboards.row(square) == 2) {
+                targets |= (singlePush << 8) & empty;
+            }
+            targets |= Bitboards.pawnAttacks(color, square) & board.pieces(TeamColor.BLACK);
+        } else {
+            long singlePush = (pawn >>> 8) & empty;
+            targets = singlePush;
+            if (Bitboards.row(square) == 7) {
+                targets |= (singlePush >>> 8) & empty;
+            }
+            targets |= Bitboards.pawnAttacks(color, square) & board.pieces(TeamColor.WHITE);
+        }
+        return targets;
+    }
+
+    /**
+     * Adds a move from a position to each square in a bitboard. A pawn reaching the last row
+     * gets one move per promotion piece.
+     * @param piece the piece being moved
+     * @param startPosition the starting position of the piece
+     * @param targets bitboard of the end squares
+     * @param moves the collection being added to
+     */
+    static void addMoves(ChessPiece piece, ChessPosition startPosition, long targets, Collection<ChessMove> moves) {
+        long promotionRow = promotionRow(piece);
+        while (targets != 0) {
+            int target = Long.numberOfTrailingZeros(targets);
+            ChessPosition endPosition = Bitboards.position(target);
+            if ((promotionRow & (1L << target)) != 0) {
+                moves.add(new ChessMove(startPosition, endPosition, PieceType.QUEEN));
+                moves.add(new ChessMove(startPosition, endPosition, PieceType.ROOK));
+                moves.add(new ChessMove(startPosition, endPosition, PieceType.KNIGHT));
+                moves.add(new ChessMove(startPosition, endPosition, PieceType.BISHOP));
+            } else {
+                moves.add(new ChessMove(startPosition, endPosition, null));
+            }
+            targets &= targets - 1;
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package chess;
+
+import java.util.Arrays;
+
+/**
+ * A reusable buffer of packed moves (see {@link Move}). Filling a list allocates nothing,
+ * so one list per search depth can be reused for every position at that depth.
+ */
+public final class MoveList {
+
+    // No legal chess position has more than 218 moves
+    public static final int DEFAULT_CAPACITY = 256;
+
+    private final int[] moves;
+    private int size = 0;
+
+    public MoveList() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public MoveList(int capacity) {
+        moves = new int[capacity];
+    }
+
+    public void add(int move) {
+        moves[size++] = move;
+    }
+
+    public int get(int index) {
+        return moves[index];
+    }
+
+    public void set(int index, int move) {
+        moves[index] = move;
+    }
+
+    /**
+     * Swaps two moves, for callers that sort the list in place
+     */
+    public void swap(int first, int second) {
+        int move = moves[first];
+        moves[first] = moves[second];
+        moves[second] = move;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * @return a copy of the moves in the list, sized to fit
+     */
+    public int[] toArray() {
+        return Arrays.copyOf(moves, size);
+    }
+
+    /**
+     * @return whether the list holds a move with the same squares and promotion, ignoring flags
+     */
+    public boolean contains(int move) {
+        int wanted = Move.withoutFlags(move);
+        for (int i = 0; i < size; i++) {
+            if (Move.withoutFlags(moves[i]) == wanted) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,153 @@
+package chess;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Perft ("performance test") counts every line of legal play to a fixed depth.
+ * <p>
+ * The counts for well known positions are published, so comparing against them checks the
+ * move generator, and timing the count measures how fast it runs. Moves are made and taken
+ * back in place using packed moves and one reusable move list per ply, and the last ply
+ * is counted from the legal target masks without making the moves.
+ * <p>
+ * {@link #parallelPerft} splits the tree across a ForkJoinPool: each move near the root
+ * becomes a task with its own copy of the game, and work stealing spreads the subtrees,
+ * which differ a lot in size, across the threads.
+ */
+public final class Perft {
+
+    // Subtrees at least this deep are split into a task per move; shallower ones are counted
+    // on the thread that reaches them
+    private static final int SPLIT_DEPTH = 4;
+
+    private Perft() {}
+
+    /**
+     * Counts the leaf nodes of the legal move tree below a position. The game is walked with
+     * doMove/undoMove and is back in its starting position when this returns.
+     *
+     * @param game the position to start from, with the side to move set
+     * @param depth how many plies to look ahead
+     * @return the number of distinct move sequences of that length
+     */
+    public static long perft(ChessGame game, int depth) {
+        if (depth == 0) {
+            return 1;
+        }
+        MoveGenerator[] generators = new MoveGenerator[depth];
+        MoveList[] moveLists = new MoveList[depth];
+        for (int ply = 0; ply < depth; ply++) {
+            generators[ply] = new MoveGenerator();
+            moveLists[ply] = new MoveList();
+        }
+        return perft(game, depth, generators, moveLists);
+    }
+
+    private static long perft(ChessGame game, int depth, MoveGenerator[] generators, MoveList[] moveLists) {
+        MoveGenerator generator = generators[depth - 1].reset(game.getBoard(), game.getTeamTurn());
+        if (depth == 1) {
+            return generator.count();
+        }
+        MoveList moves = moveLists[depth - 1];
+        moves.clear();
+        generator.generate(moves);
+        long nodes = 0;
+        for (int i = 0; i < moves.size(); i++) {
+            game.doMove(moves.get(i));
+            nodes += perft(game, depth - 1, generators, moveLists);
+            game.undoMove();
+        }
+        return nodes;
+    }
+
+    /**
+     * Counts the same leaf nodes as {@link #perft(ChessGame, int)} on the common ForkJoinPool
+     *
+     * @param game the position to start from, which is not changed
+     * @param depth how many plies to look ahead
+     * @return the number of distinct move sequences of that length
+     */
+    public static long parallelPerft(ChessGame game, int depth) {
+        return parallelPerft(game, depth, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Counts the same leaf nodes as {@link #perft(ChessGame, int)}, with the subtrees counted
+     * in parallel on a pool
+     *
+     * @param game the position to start from, which is not changed
+     * @param depth how many plies to look ahead
+     * @param pool the pool to run on
+     * @return the number of distinct move sequences of that length
+     */
+    public static long parallelPerft(ChessGame game, int depth, ForkJoinPool pool) {
+        return pool.invoke(new PerftTask(game.clone(), depth));
+    }
+
+    /**
+     * Counts the tree below a position it owns, forking a task per move while the tree is
+     * deep enough to be worth splitting
+     */
+    private static final class PerftTask extends RecursiveTask<Long> {
+        private final ChessGame game;
+        private final int depth;
+
+        PerftTask(ChessGame game, int depth) {
+            this.game = game;
+            this.depth = depth;
+        }
+
+        @Override
+        protected Long compute() {
+            if (depth < SPLIT_DEPTH) {
+                return perft(game, depth);
+            }
+            MoveList moves = new MoveList();
+            new MoveGenerator(game.getBoard(), game.getTeamTurn()).generate(moves);
+            PerftTask[] tasks = new PerftTask[moves.size()];
+            for (int i = 0; i < tasks.length; i++) {
+                ChessGame child = game.clone();
+                child.doMove(moves.get(i));
+                tasks[i] = new PerftTask(child, depth - 1);
+            }
+            invokeAll(tasks);
+            long nodes = 0;
+            for (PerftTask task : tasks) {
+                nodes += task.join();
+            }
+            return nodes;
+        }
+    }
+
+    /**
+     * Runs perft from the starting position at each depth up to the one given (default 5)
+     * and prints the node counts and speed, then counts the deepest level again in parallel
+     * (on as many threads as the second argument, default one per processor) and prints the
+     * speed per thread, which stays close to the single-threaded speed while the count scales.
+     */
+    public static void main(String[] args) {
+        int maxDepth = args.length > 0 ? Integer.parseInt(args[0]) : 5;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        ChessGame game = new ChessGame();
+        for (int depth = 1; depth <= maxDepth; depth++) {
+            long start = System.nanoTime();
+            long nodes = perft(game, depth);
+            long elapsed = System.nanoTime() - start;
+            System.out.printf("depth %d: %,d nodes in %.1f ms (%,.0f nodes/sec)%n",
+                    depth, nodes, elapsed / 1e6, nodes / (elapsed / 1e9));
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            long start = System.nanoTime();
+            long nodes = parallelPerft(game, maxDepth, pool);
+            long elapsed = System.nanoTime() - start;
+            double nodesPerSecond = nodes / (elapsed / 1e9);
+            System.out.printf("depth %d on %d threads: %,d nodes in %.1f ms (%,.0f nodes/sec, %,.0f per thread)%n",
+                    maxDepth, threads, nodes, elapsed / 1e6, nodesPerSecond, nodesPerSecond / threads);
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package chess;
+
+import chess.ChessGame.TeamColor;
+import chess.ChessPiece.PieceType;
+
+/**
+ * Material and piece-square values, in centipawns, for the opening/middlegame and for the
+ * endgame. {@link ChessBoard} keeps the sums of these up to date as pieces move, so a
+ * position can be scored without looking at its pieces.
+ * <p>
+ * The game phase measures how much material is left: each knight and bishop counts 1, each
+ * rook 2 and each queen 4, so the starting position is at {@link #MAX_PHASE}. Scores are
+ * blended from the middlegame value toward the endgame value as the phase falls.
+ * <p>
+ * The tables below are written as the board looks from white's side, with row 8 on top, so
+ * white reads a square through (square ^ 56) and black reads it directly, which mirrors the
+ * table for black.
+ */
+public final class PieceSquareTables {
+
+    public static final int MAX_PHASE = 24;
+
+    // Indexed by PieceType ordinal: KING, QUEEN, BISHOP, KNIGHT, ROOK, PAWN
+    private static final int[] MIDGAME_VALUES = {0, 900, 330, 320, 500, 100};
+    private static final int[] ENDGAME_VALUES = {0, 920, 330, 300, 520, 120};
+    private static final int[] PHASE_WEIGHTS = {0, 4, 1, 1, 2, 0};
+
+    private static final int[] KING_MIDGAME = {
+            -30, -40, -40, -50, -50, -40, -40, -30,
+            -30, -40, -40, -50, -50, -40, -40, -30,
+            -30, -40, -40, -50, -50, -40, -40, -30,
+            -30, -40, -40, -50, -50, -40, -40, -30,
+            -20, -30, -30, -40, -40, -30, -30, -20,
+            -10, -20, -20, -20, -20, -20, -20, -10,
+             20,  20,   0,   0,   0,   0,  20,  20,
+             20,  30,  10,   0,   0,  10,  30,  20,
+    };
+
+    private static final int[] KING_ENDGAME = {
+            -50, -40, -30, -20, -20, -30, -40, -50,
+            -30, -20, -10,   0,   0, -10, -20, -30,
+            -30, -10,  20,  30,  30,  20, -10, -30,
+            -30, -10,  30,  40,  40,  30, -10, -30,
+            -30, -10,  30,  40,  40,  30, -10, -30,
+            -30, -10,  20,  30,  30,  20, -10, -30,
+            -30, -30,   0,   0,   0,   0, -30, -30,
+            -50, -30, -30, -30, -30, -30, -30, -50,
+    };
+
+    private static final int[] QUEEN_TABLE = {
+            -20, -10, -10,  -5,  -5, -10, -10, -20,
+            -10,   0,   0,   0,   0,   0,   0, -10,
+            -10,   0,   5,   5,   5,   5,   0, -10,
+             -5,   0,   5,   5,   5,   5,   0,  -5,
+              0,   0,   5,   5,   5,   5,   0,  -5,
+            -10,   5,   5,   5,   5,   5,   0, -10,
+            -10,   0,   5,   0,   0,   0,   0, -10,
+            -20, -10, -10,  -5,  -5, -10, -10, -20,
+    };
+
+    private static final int[] BISHOP_TABLE = {
+            -20, -10, -10, -10, -10, -10, -10, -20,
+            -10,   0,   0,   0,   0,   0,   0, -10,
+            -10,   0,   5,  10,  10,   5,   0, -10,
+            -10,   5,   5,  10,  10,   5,   5, -10,
+            -10,   0,  10,  10,  10,  10,   0, -10,
+            -10,  10,  10,  10,  10,  10,  10, -10,
+            -10,   5,   0,   0,   0,   0,   5, -10,
+            -20, -10, -10, -10, -10, -10, -10, -20,
+    };
+
+    private static final int[] KNIGHT_TABLE = {
+            -50, -40, -30, -30, -30, -30, -40, -50,
+            -40, -20,   0,   0,   0,   0, -20, -40,
+            -30,   0,  10,  15,  15,  10,   0, -30,
+            -30,   5,  15,  20,  20,  15,   5, -30,
+            -30,   0,  15,  20,  20,  15,   0, -30,
+            -30,   5,  10,  15,  15,  10,   5, -30,
+            -40, -20,   0,   5,   5,   0, -20, -40,
+            -50, -40, -30, -30, -30, -30, -40, -50,
+    };
+
+    private static final int[] ROOK_TABLE = {
+              0,   0,   0,   0,   0,   0,   0,   0,
+              5,  10,  10,  10,  10,  10,  10,   5,
+             -5,   0,   0,   0,   0,   0,   0,  -5,
+             -5,   0,   0,   0,   0,   0,   0,  -5,
+             -5,   0,   0,   0,   0,   0,   0,  -5,
+             -5,   0,   0,   0,   0,   0,   0,  -5,
+             -5,   0,   0,   0,   0,   0,   0,  -5,
+              0,   0,   0,   5,   5,   0,   0,   0,
+    };
+
+    private static final int[] PAWN_MIDGAME = {
+              0,   0,   0,   0,   0,   0,   0,   0,
+             50,  50,  50,  50,  50,  50,  50,  50,
+             10,  10,  20,  30,  30,  20,  10,  10,
+              5,   5,  10,  25,  25,  10,   5,   5,
+              0,   0,   0,  20,  20,   0,   0,   0,
+              5,  -5, -10,   0,   0, -10,  -5,   5,
+              5,  10,  10, -20, -20,  10,  10,   5,
+              0,   0,   0,   0,   0,   0,   0,   0,
+    };
+
+    // Passed pawns decide endgames, so advanced pawns are worth much more
+    private static final int[] PAWN_ENDGAME = {
+              0,   0,   0,   0,   0,   0,   0,   0,
+             90,  90,  90,  90,  90,  90,  90,  90,
+             50,  50,  50,  50,  50,  50,  50,  50,
+             30,  30,  30,  30,  30,  30,  30,  30,
+             15,  15,  15,  15,  15,  15,  15,  15,
+              5,   5,   5,   5,   5,   5,   5,   5,
+              0,   0,   0,   0,   0,   0,   0,   0,
+              0,   0,   0,   0,   0,   0,   0,   0,
+    };
+
+    private static final int[][] MIDGAME_TABLES =
+            {KING_MIDGAME, QUEEN_TABLE, BISHOP_TABLE, KNIGHT_TABLE, ROOK_TABLE, PAWN_MIDGAME};
+    private static final int[][] ENDGAME_TABLES =
+            {KING_ENDGAME, QUEEN_TABLE, BISHOP_TABLE, KNIGHT_TABLE, ROOK_TABLE, PAWN_ENDGAME};
+
+    // Value of each piece on each square, indexed by pieceIndex * 64 + square, from white's
+    // side: black's values are negative, so a board's score is a plain sum
+    private static final int[] MIDGAME = new int[12 * 64];
+    private static final int[] ENDGAME = new int[12 * 64];
+
+    static {
+        for (TeamColor color : TeamColor.values()) {
+            int sign = color == TeamColor.WHITE ? 1 : -1;
+            int flip = color == TeamColor.WHITE ? 56 : 0;
+            for (PieceType type : PieceType.values()) {
+                int base = (color.ordinal() * 6 + type.ordinal()) * 64;
+                for (int square = 0; square < 64; square++) {
+                    MIDGAME[base + square] = sign * (MIDGAME_VALUES[type.ordinal()]
+                            + MIDGAME_TABLES[type.ordinal()][square ^ flip]);
+                    ENDGAME[base + square] = sign * (ENDGAME_VALUES[type.ordinal()]
+                            + ENDGAME_TABLES[type.ordinal()][square ^ flip]);
+                }
+            }
+        }
+    }
+
+    private PieceSquareTables() {}
+
+    /**
+     * @return the middlegame value of a piece on a square, positive for white and negative for black
+     */
+    public static int midgame(TeamColor color, PieceType type, int square) {
+        return MIDGAME[(color.ordinal() * 6 + type.ordinal()) * 64 + square];
+    }
+
+    /**
+     * @return the endgame value of a piece on a square, positive for white and negative for black
+     */
+    public static int endgame(TeamColor color, PieceType type, int square) {
+        return ENDGAME[(color.ordinal() * 6 + type.ordinal()) * 64 + square];
+    }
+
+    /**
+     * @return how much a piece of this type counts toward the game phase
+     */
+    public static int phaseWeight(PieceType type) {
+        return PHASE_WEIGHTS[type.ordinal()];
+    }
+
+    /**
+     * Blends a middlegame and an endgame score by the game phase
+     * @param midgame the middlegame score
+     * @param endgame the endgame score
+     * @param phase the game phase, from 0 (bare kings and pawns) up to MAX_PHASE
+     * @return the blended score
+     */
+    public static int taper(int midgame, int endgame, int phase) {
+        int clamped = Math.min(phase, MAX_PHASE);
+        return (midgame * clamped + endgame * (MAX_PHASE - clamped)) / MAX_PHASE;
+    }
+
+    static int midgame(int pieceIndex, int square) {
+        return MIDGAME[pieceIndex * 64 + square];
+    }
+
+    static int endgame(int pieceIndex, int square) {
+        return ENDGAME[pieceIndex * 64 + square];
+    }
+
+    static int phaseWeight(int pieceIndex) {
+        return PHASE_WEIGHTS[pieceIndex % 6];
+    }
+}
@@ -0,0 +1,42 @@
+package chess;
+
+/**
+ * Random keys for Zobrist hashing of positions.
+ * <p>
+ * A position's key is the XOR of one key per piece on its square, plus the side-to-move key
+ * when it is black's turn. Moving a piece only needs a few XORs to update the key.
+ * The keys come from a fixed seed so every process (client, server, engine) agrees on them.
+ */
+final class Zobrist {
+
+    private static final long[] PIECE_SQUARE = new long[12 * 64];
+    static final long BLACK_TO_MOVE;
+
+    static {
+        long state = 0x240C4E55L;
+        for (int i = 0; i < PIECE_SQUARE.length; i++) {
+            state += 0x9E3779B97F4A7C15L;
+            PIECE_SQUARE[i] = mix(state);
+        }
+        state += 0x9E3779B97F4A7C15L;
+        BLACK_TO_MOVE = mix(state);
+    }
+
+    private Zobrist() {}
+
+    /**
+     * @param pieceIndex color.ordinal() * 6 + type.ordinal()
+     * @param square the square index
+     * @return the key for that piece standing on that square
+     */
+    static long pieceSquare(int pieceIndex, int square) {
+        return PIECE_SQUARE[pieceIndex * 64 + square];
+    }
+
+    // SplitMix64 finalizer
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,62 @@
+package engine;
+
+import chess.ChessBoard;
+import chess.ChessGame.TeamColor;
+import chess.ChessPiece.PieceType;
+import chess.PieceSquareTables;
+
+/**
+ * Static evaluation of a position: material plus piece-square bonuses, in centipawns,
+ * blended between middlegame and endgame values by the game phase.
+ * <p>
+ * The board keeps the running sums up to date as pieces move, so scoring a position reads
+ * three numbers instead of walking the pieces. With assertions enabled (-ea), every
+ * evaluation is checked against a full recount.
+ */
+public final class Evaluation {
+
+    private Evaluation() {}
+
+    /**
+     * Scores a position for one side
+     * @param board the board to score
+     * @param side the side the score is for
+     * @return the score in centipawns, positive when the side is ahead
+     */
+    public static int evaluate(ChessBoard board, TeamColor side) {
+        int score = PieceSquareTables.taper(board.getMidgameScore(), board.getEndgameScore(), board.getPhase());
+        assert score == recount(board) : "incremental evaluation " + score + " != recount " + recount(board);
+        return side == TeamColor.WHITE ? score : -score;
+    }
+
+    /**
+     * Scores a position for one side by walking every piece, without the board's running sums.
+     * This is the reference the incremental score is checked against.
+     * @param board the board to score
+     * @param side the side the score is for
+     * @return the score in centipawns, positive when the side is ahead
+     */
+    public static int evaluateFromScratch(ChessBoard board, TeamColor side) {
+        int score = recount(board);
+        return side == TeamColor.WHITE ? score : -score;
+    }
+
+    private static int recount(ChessBoard board) {
+        int midgame = 0;
+        int endgame = 0;
+        int phase = 0;
+        for (TeamColor color : TeamColor.values()) {
+            for (PieceType type : PieceType.values()) {
+                long pieces = board.pieces(color, type);
+                phase += Long.bitCount(pieces) * PieceSquareTables.phaseWeight(type);
+                while (pieces != 0) {
+                    int square = Long.numberOfTrailingZeros(pieces);
+                    midgame += PieceSquareTables.midgame(color, type, square);
+                    endgame += PieceSquareTables.endgame(color, type, square);
+                    pieces &= pieces - 1;
+                }
+            }
+        }
+        return PieceSquareTables.taper(midgame, endgame, phase);
+    }
+}
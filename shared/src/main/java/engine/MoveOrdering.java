@@ -0,0 +1,157 @@
+package engine;
+
+import chess.ChessBoard;
+import chess.ChessPiece;
+import chess.Move;
+import chess.MoveList;
+
+/**
+ * Decides the order a search tries moves in. Alpha-beta prunes the most when the best move
+ * comes first, so moves are tried in this order:
+ * <ol>
+ *     <li>the move from the transposition table</li>
+ *     <li>captures and promotions, most valuable victim first and, among those, least
+ *     valuable attacker first (MVV-LVA)</li>
+ *     <li>the two killer moves for the ply: quiet moves that caused a cutoff at the same
+ *     ply elsewhere in the tree</li>
+ *     <li>other quiet moves, by how often they have caused cutoffs (the history heuristic)</li>
+ * </ol>
+ * Every table is a primitive array made once, so ordering allocates nothing while searching.
+ * Moves are picked one at a time rather than sorted, since a cutoff often comes after the
+ * first move or two and the rest never need ordering.
+ */
+final class MoveOrdering {
+
+    private static final int TABLE_MOVE_SCORE = 1 << 28;
+    private static final int CAPTURE_SCORE = 1 << 26;
+    private static final int KILLER_SCORE = 1 << 24;
+    // History is halved when any entry reaches this, so it stays below the killers
+    private static final int HISTORY_LIMIT = 1 << 20;
+
+    // Indexed by PieceType ordinal: KING, QUEEN, BISHOP, KNIGHT, ROOK, PAWN. The king only
+    // ever attacks, and is the last piece to want to capture with.
+    private static final int[] ORDER_VALUES = {20, 9, 3, 3, 5, 1};
+
+    private final int[][] scores;
+    private final int[][] killers;
+    // Indexed by ((color * 64) + from) * 64 + to
+    private final int[] history = new int[2 * 64 * 64];
+
+    MoveOrdering(int maxPly) {
+        scores = new int[maxPly + 1][MoveList.DEFAULT_CAPACITY];
+        killers = new int[maxPly + 1][2];
+    }
+
+    /**
+     * Forgets the killers, which belong to one search tree, and halves the history so the
+     * new search can outweigh it
+     */
+    void newSearch() {
+        for (int[] plyKillers : killers) {
+            plyKillers[0] = Move.NONE;
+            plyKillers[1] = Move.NONE;
+        }
+        ageHistory();
+    }
+
+    /**
+     * Scores every move in a list, ready for {@link #next}
+     * @param moves the moves of the position at this ply
+     * @param board the board, before any of the moves is made
+     * @param tableMove the move from the transposition table, or Move.NONE
+     * @param ply how far the position is from the root
+     */
+    void score(MoveList moves, ChessBoard board, int tableMove, int ply) {
+        int[] plyScores = scores[ply];
+        int tableMoveSquares = Move.withoutFlags(tableMove);
+        int[] plyKillers = killers[ply];
+        for (int i = 0; i < moves.size(); i++) {
+            int move = moves.get(i);
+            int squares = Move.withoutFlags(move);
+            ChessPiece mover = board.getPiece(Move.from(move));
+            int score;
+            if (tableMove != Move.NONE && squares == tableMoveSquares) {
+                score = TABLE_MOVE_SCORE;
+            } else if (!isQuiet(move)) {
+                int gain = 0;
+                if (Move.isCapture(move)) {
+                    gain += ORDER_VALUES[board.getPiece(Move.to(move)).getPieceType().ordinal()];
+                }
+                if (Move.promotion(move) != null) {
+                    gain += ORDER_VALUES[Move.promotion(move).ordinal()];
+                }
+                score = CAPTURE_SCORE + gain * 32 - ORDER_VALUES[mover.getPieceType().ordinal()];
+            } else if (squares == plyKillers[0]) {
+                score = KILLER_SCORE + 1;
+            } else if (squares == plyKillers[1]) {
+                score = KILLER_SCORE;
+            } else {
+                score = history[historyIndex(mover, move)];
+            }
+            plyScores[i] = score;
+        }
+    }
+
+    /**
+     * Moves the best of the remaining moves to a position in the list
+     * @param moves the list scored with {@link #score}
+     * @param index the position to fill; every move before it has been picked already
+     * @param ply the ply the list was scored at
+     * @return the move now at that position
+     */
+    int next(MoveList moves, int index, int ply) {
+        int[] plyScores = scores[ply];
+        int best = index;
+        for (int i = index + 1; i < moves.size(); i++) {
+            if (plyScores[i] > plyScores[best]) {
+                best = i;
+            }
+        }
+        if (best != index) {
+            moves.swap(index, best);
+            int score = plyScores[index];
+            plyScores[index] = plyScores[best];
+            plyScores[best] = score;
+        }
+        return moves.get(index);
+    }
+
+    /**
+     * Remembers a quiet move that caused a beta cutoff, as a killer for its ply and in the
+     * history table. Captures already come early, so they are not recorded.
+     * @param move the move
+     * @param board the board, with the move taken back
+     * @param depth the remaining depth where the cutoff happened; deeper cutoffs count more
+     * @param ply how far the position is from the root
+     */
+    void cutoff(int move, ChessBoard board, int depth, int ply) {
+        if (!isQuiet(move)) {
+            return;
+        }
+        int squares = Move.withoutFlags(move);
+        int[] plyKillers = killers[ply];
+        if (plyKillers[0] != squares) {
+            plyKillers[1] = plyKillers[0];
+            plyKillers[0] = squares;
+        }
+        int index = historyIndex(board.getPiece(Move.from(move)), move);
+        history[index] += depth * depth;
+        if (history[index] >= HISTORY_LIMIT) {
+            ageHistory();
+        }
+    }
+
+    private void ageHistory() {
+        for (int i = 0; i < history.length; i++) {
+            history[i] >>= 1;
+        }
+    }
+
+    private static boolean isQuiet(int move) {
+        return !Move.isCapture(move) && Move.promotion(move) == null;
+    }
+
+    private static int historyIndex(ChessPiece mover, int move) {
+        return ((mover.getTeamColor().ordinal() * 64) + Move.from(move)) * 64 + Move.to(move);
+    }
+}
@@ -0,0 +1,240 @@
+package engine;
+
+import chess.ChessGame;
+import chess.ChessPiece.PieceType;
+import chess.Move;
+import chess.MoveGenerator;
+import chess.MoveList;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.random.RandomGenerator;
+
+/**
+ * An opening book read straight from a memory-mapped file. Nothing is parsed or copied onto
+ * the heap when the book is opened: a lookup binary-searches the mapped file by position key,
+ * so the operating system's page cache holds the book once for every process that opens it.
+ * <p>
+ * The file uses the Polyglot layout: 16-byte big-endian entries of key (8 bytes), move (2),
+ * weight (2) and learn data (4), sorted by key as an unsigned number, with every entry for a
+ * position next to each other. Moves are packed as to-square in bits 0-5, from-square in bits
+ * 6-11 and promotion in bits 12-14 (1 knight, 2 bishop, 3 rook, 4 queen), with squares numbered
+ * the same way as {@link Move}. Positions are looked up by their Polyglot key
+ * ({@link #positionKey}), so books made by other Polyglot tools can be used as they are.
+ * <p>
+ * Book moves are checked against the legal moves before they are returned, so a corrupt or
+ * mismatched book can only cost a lookup, never an illegal move. The book is read-only and
+ * safe to share between threads.
+ */
+public final class OpeningBook {
+
+    public static final int ENTRY_BYTES = 16;
+    public static final int MAX_WEIGHT = 0xFFFF;
+
+    private static final int MOVE_OFFSET = 8;
+    private static final int WEIGHT_OFFSET = 10;
+    private static final int FROM_SHIFT = 6;
+    private static final int PROMOTION_SHIFT = 12;
+    // Indexed by Polyglot promotion code
+    private static final PieceType[] PROMOTIONS =
+            {null, PieceType.KNIGHT, PieceType.BISHOP, PieceType.ROOK, PieceType.QUEEN};
+
+    /**
+     * One book entry, for writing a book
+     * @param key the position's Polyglot key (see {@link #positionKey})
+     * @param move the packed move (see {@link Move}); its capture flag is ignored
+     * @param weight how often to play the move relative to the others, from 1 to MAX_WEIGHT
+     */
+    public record Entry(long key, int move, int weight) {}
+
+    private final MappedByteBuffer buffer;
+    private final int entryCount;
+
+    /**
+     * Maps a book file into memory
+     * @param path the book file
+     * @throws IOException if the file cannot be read
+     * @throws IllegalArgumentException if the file is not a whole number of entries, or is
+     * larger than 2 GB
+     */
+    public OpeningBook(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size % ENTRY_BYTES != 0 || size > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Not an opening book: " + path);
+            }
+            // The mapping stays valid after the channel is closed
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            buffer.order(ByteOrder.BIG_ENDIAN);
+            entryCount = (int) (size / ENTRY_BYTES);
+        }
+    }
+
+    public int entryCount() {
+        return entryCount;
+    }
+
+    /**
+     * @param game the position
+     * @return the position's key in the Polyglot book format, which is not the same as
+     * {@link ChessGame#getPositionKey()}
+     */
+    public static long positionKey(ChessGame game) {
+        return PolyglotKeys.key(game);
+    }
+
+    /**
+     * @param game the position to look up
+     * @return the legal book move with the highest weight, or Move.NONE if the book has none
+     */
+    public int bestMove(ChessGame game) {
+        MoveList legal = legalMoves(game);
+        long key = positionKey(game);
+        int best = Move.NONE;
+        int bestWeight = -1;
+        for (int index = firstEntry(key); isEntryFor(index, key); index++) {
+            int move = legalMove(legal, index);
+            if (move != Move.NONE && weight(index) > bestWeight) {
+                best = move;
+                bestWeight = weight(index);
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Picks a book move at random, each legal move as likely as its share of the weights
+     * @param game the position to look up
+     * @param random the source of randomness
+     * @return the chosen move, or Move.NONE if the book has no legal move with any weight
+     */
+    public int pickMove(ChessGame game, RandomGenerator random) {
+        MoveList legal = legalMoves(game);
+        long key = positionKey(game);
+        int first = firstEntry(key);
+        int totalWeight = 0;
+        for (int index = first; isEntryFor(index, key); index++) {
+            if (legalMove(legal, index) != Move.NONE) {
+                totalWeight += weight(index);
+            }
+        }
+        if (totalWeight == 0) {
+            return Move.NONE;
+        }
+        int choice = random.nextInt(totalWeight);
+        for (int index = first; ; index++) {
+            int move = legalMove(legal, index);
+            if (move != Move.NONE) {
+                choice -= weight(index);
+                if (choice < 0) {
+                    return move;
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes a book file, sorted the way lookups expect. Entries for the same position and move
+     * are merged by adding their weights, capped at MAX_WEIGHT.
+     * @param path the file to create or replace
+     * @param entries the entries, in any order
+     * @throws IOException if the file cannot be written
+     */
+    public static void write(Path path, Collection<Entry> entries) throws IOException {
+        // Sorted by key then book-encoded move, so duplicates end up next to each other
+        List<Entry> sorted = entries.stream()
+                .map(entry -> new Entry(entry.key(), toBookMove(entry.move()), entry.weight()))
+                .sorted(Comparator.comparing(Entry::key, Long::compareUnsigned).thenComparingInt(Entry::move))
+                .toList();
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path)))) {
+            int index = 0;
+            while (index < sorted.size()) {
+                Entry entry = sorted.get(index);
+                int weight = 0;
+                for (; index < sorted.size() && sorted.get(index).key() == entry.key()
+                        && sorted.get(index).move() == entry.move(); index++) {
+                    weight = Math.min(MAX_WEIGHT, weight + Math.max(0, sorted.get(index).weight()));
+                }
+                out.writeLong(entry.key());
+                out.writeShort(entry.move());
+                out.writeShort(weight);
+                out.writeInt(0);
+            }
+        }
+    }
+
+    /**
+     * @return the index of the first entry whose key is not below the given one
+     */
+    private int firstEntry(long key) {
+        int low = 0;
+        int high = entryCount;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (Long.compareUnsigned(key(middle), key) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private boolean isEntryFor(int index, long key) {
+        return index < entryCount && key(index) == key;
+    }
+
+    private long key(int index) {
+        return buffer.getLong(index * ENTRY_BYTES);
+    }
+
+    private int weight(int index) {
+        return Short.toUnsignedInt(buffer.getShort(index * ENTRY_BYTES + WEIGHT_OFFSET));
+    }
+
+    /**
+     * @return the legal move matching an entry, with its capture flag set, or Move.NONE
+     */
+    private int legalMove(MoveList legal, int index) {
+        int bookMove = Short.toUnsignedInt(buffer.getShort(index * ENTRY_BYTES + MOVE_OFFSET));
+        int promotionCode = (bookMove >>> PROMOTION_SHIFT) & 7;
+        if (promotionCode >= PROMOTIONS.length) {
+            return Move.NONE;
+        }
+        int move = Move.encode((bookMove >>> FROM_SHIFT) & 63, bookMove & 63, PROMOTIONS[promotionCode], 0);
+        for (int i = 0; i < legal.size(); i++) {
+            if (Move.withoutFlags(legal.get(i)) == move) {
+                return legal.get(i);
+            }
+        }
+        return Move.NONE;
+    }
+
+    private static MoveList legalMoves(ChessGame game) {
+        MoveList legal = new MoveList();
+        new MoveGenerator(game.getBoard(), game.getTeamTurn()).generate(legal);
+        return legal;
+    }
+
+    private static int toBookMove(int move) {
+        int promotionCode = 0;
+        PieceType promotion = Move.promotion(move);
+        for (int code = 1; code < PROMOTIONS.length; code++) {
+            if (PROMOTIONS[code] == promotion) {
+                promotionCode = code;
+            }
+        }
+        return Move.to(move) | (Move.from(move) << FROM_SHIFT) | (promotionCode << PROMOTION_SHIFT);
+    }
+}
@@ -0,0 +1,428 @@
+package engine;
+
+import chess.Bitbases;
+import chess.ChessGame;
+import chess.Move;
+import chess.MoveGenerator;
+import chess.MoveList;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Finds a good move with iterative deepening alpha-beta search.
+ * <p>
+ * Each iteration searches one ply deeper than the last, starting with the previous best move,
+ * and stops at the search limits. Moves are tried in the order {@link MoveOrdering} picks. A
+ * quiescence search plays out captures at the leaves, so positions are not scored in the
+ * middle of an exchange. A position that repeats one from earlier in the game or the search
+ * line, or that reaches the fifty-move rule, scores as a draw. Moves are made and taken back
+ * on a private copy of the game, with one move generator and move list per ply, so the
+ * search does not allocate while it runs. A search is not thread safe; use one per thread.
+ * <p>
+ * When endgame bitbases are installed, positions in them are scored from the tables instead
+ * of searched. If the root itself is in the tables, the root moves that throw away the best
+ * result are dropped and the rest are searched normally, so the search still finds the way
+ * to mate.
+ * <p>
+ * With more than one thread the search runs Lazy SMP: helper threads search the same
+ * position at the same time, each on its own copy of the game, and only share the
+ * transposition table. Their results fill the table ahead of the main thread, whose result
+ * is the one returned. Every other helper searches one ply deeper so the helpers do not all
+ * follow the same path. Helpers come from a process-wide pool limited by the
+ * chess.engine.maxHelperThreads system property (default one fewer than the processor count);
+ * a search that cannot get all the helpers it asked for runs with the ones it got. A helper
+ * that fails never costs the main thread its result: the failure is logged, or added as a
+ * suppressed exception if the main thread failed too.
+ */
+public final class Search {
+
+    public static final int MATE = 100_000;
+    static final int INFINITY = MATE + 1;
+
+    // Quiescence can run past the deepest iteration, so leave room for it
+    private static final int MAX_PLY = SearchLimits.MAX_DEPTH * 2;
+    // Scores at least this far from zero are forced mates
+    static final int MATE_BOUND = MATE - MAX_PLY;
+    // Score of a position the bitbases prove won: above any evaluation and below any mate
+    static final int KNOWN_WIN = MATE / 2;
+    private static final int DEFAULT_TABLE_MEGABYTES = 16;
+    private static final int TIME_CHECK_INTERVAL = 1024;
+    private static final System.Logger LOG = System.getLogger(Search.class.getName());
+
+    private static final Semaphore HELPER_PERMITS = new Semaphore(Math.max(0,
+            Integer.getInteger("chess.engine.maxHelperThreads", Runtime.getRuntime().availableProcessors() - 1)));
+    private static final ExecutorService HELPER_POOL = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "search-helper");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final ChessGame game;
+    private final TranspositionTable table;
+    private final MoveGenerator[] generators = new MoveGenerator[MAX_PLY + 1];
+    private final MoveList[] moveLists = new MoveList[MAX_PLY + 1];
+    private final MoveOrdering ordering = new MoveOrdering(MAX_PLY);
+    private final Bitbases bitbases = Bitbases.installed();
+
+    private long nodes;
+    private long nodeLimit;
+    private boolean timed;
+    private long deadline;
+    private boolean mayStop;
+    private boolean stopped;
+    private boolean probeBitbases;
+    // set once the main thread has its result, telling the helpers to stop
+    private AtomicBoolean finished;
+
+    /**
+     * @param game the position to search, which is copied so the caller may keep using it
+     */
+    public Search(ChessGame game) {
+        this(game, new TranspositionTable(DEFAULT_TABLE_MEGABYTES));
+    }
+
+    /**
+     * @param game the position to search, which is copied so the caller may keep using it
+     * @param table the transposition table to use, which may be shared with other searches
+     */
+    public Search(ChessGame game, TranspositionTable table) {
+        this.table = table;
+        this.game = game.clone();
+        for (int ply = 0; ply <= MAX_PLY; ply++) {
+            generators[ply] = new MoveGenerator();
+            moveLists[ply] = new MoveList();
+        }
+    }
+
+    /**
+     * Searches for the best move for the side to move
+     * @param limits when to stop searching, and how many threads to use
+     * @return the best move found and what the search did to find it
+     */
+    public SearchResult search(SearchLimits limits) {
+        long start = System.nanoTime();
+        table.newSearch();
+        int helperCount = acquireHelpers(limits.threads() - 1);
+        AtomicBoolean finished = new AtomicBoolean();
+        List<Future<Long>> helpers = new ArrayList<>(helperCount);
+        SearchResult result;
+        Throwable failure = null;
+        long helperNodes;
+        try {
+            for (int index = 1; index <= helperCount; index++) {
+                Search helper = new Search(game, table);
+                int depthOffset = index & 1;
+                helpers.add(HELPER_POOL.submit(
+                        () -> helper.iterate(limits, start, true, depthOffset, finished).nodes()));
+            }
+            result = iterate(limits, start, false, 0, finished);
+        } catch (RuntimeException | Error e) {
+            failure = e;
+            throw e;
+        } finally {
+            finished.set(true);
+            helperNodes = joinHelpers(helpers, failure);
+            HELPER_PERMITS.release(helperCount);
+        }
+        return new SearchResult(result.move(), result.score(), result.depth(), result.nodes() + helperNodes,
+                System.nanoTime() - start);
+    }
+
+    /**
+     * Runs iterative deepening on this thread
+     * @param helper whether this is a helper, which may stop at any time
+     * @param depthOffset how many plies deeper than the main thread to search
+     */
+    private SearchResult iterate(SearchLimits limits, long start, boolean helper, int depthOffset,
+                                 AtomicBoolean finished) {
+        this.finished = finished;
+        timed = limits.millis() < Long.MAX_VALUE / 1_000_000;
+        deadline = timed ? start + limits.millis() * 1_000_000 : 0;
+        nodeLimit = limits.nodes();
+        nodes = 0;
+        stopped = false;
+        ordering.newSearch();
+
+        MoveGenerator generator = generators[0].reset(game.getBoard(), game.getTeamTurn());
+        MoveList rootMoves = new MoveList();
+        generator.generate(rootMoves);
+        if (rootMoves.isEmpty()) {
+            int score = generator.inCheck() ? -MATE : 0;
+            return new SearchResult(Move.NONE, score, 0, 0, System.nanoTime() - start);
+        }
+        probeBitbases = bitbases != null;
+        if (probeBitbases && bitbases.probe(game.getBoard(), game.getTeamTurn()) != Bitbases.Outcome.UNKNOWN) {
+            rootMoves = keepBestOutcome(rootMoves);
+            probeBitbases = false;
+        }
+        ordering.score(rootMoves, game.getBoard(), Move.NONE, 0);
+        for (int i = 0; i < rootMoves.size(); i++) {
+            ordering.next(rootMoves, i, 0);
+        }
+
+        int bestMove = rootMoves.get(0);
+        int bestScore = 0;
+        int completedDepth = 0;
+        int maxDepth = Math.min(limits.depth(), SearchLimits.MAX_DEPTH);
+        for (int depth = 1 + depthOffset; depth <= maxDepth; depth++) {
+            // depth 1 always finishes, so there is a move to return however small the budget
+            mayStop = depth > 1 || helper;
+            int score = searchRoot(rootMoves, depth);
+            if (stopped) {
+                break;
+            }
+            bestMove = rootMoves.get(0);
+            bestScore = score;
+            completedDepth = depth;
+            if (Math.abs(score) >= MATE - depth) {
+                break; // a forced mate was found, searching deeper cannot find a shorter one
+            }
+        }
+        return new SearchResult(bestMove, bestScore, completedDepth, nodes, System.nanoTime() - start);
+    }
+
+    /**
+     * Searches every root move and moves the best one to the front of the list
+     */
+    private int searchRoot(MoveList moves, int depth) {
+        int alpha = -INFINITY;
+        int bestIndex = 0;
+        for (int i = 0; i < moves.size(); i++) {
+            game.doMove(moves.get(i));
+            int score = -alphaBeta(depth - 1, -INFINITY, -alpha, 1);
+            game.undoMove();
+            if (stopped) {
+                return alpha;
+            }
+            if (score > alpha) {
+                alpha = score;
+                bestIndex = i;
+            }
+        }
+        for (int i = bestIndex; i > 0; i--) {
+            moves.swap(i, i - 1);
+        }
+        table.store(game.getPositionKey(), moves.get(0), depth, TranspositionTable.EXACT,
+                TranspositionTable.toStored(alpha, 0));
+        return alpha;
+    }
+
+    private int alphaBeta(int depth, int alpha, int beta, int ply) {
+        // a position seen before on the way here can be repeated forever, so it is a draw
+        if (game.repetitionCount() > 0 || game.getHalfmoveClock() >= ChessGame.FIFTY_MOVE_PLIES) {
+            return 0;
+        }
+        if (probeBitbases) {
+            switch (bitbases.probe(game.getBoard(), game.getTeamTurn())) {
+                case WIN -> {
+                    return KNOWN_WIN - ply;
+                }
+                case LOSS -> {
+                    return -KNOWN_WIN + ply;
+                }
+                case DRAW -> {
+                    return 0;
+                }
+                case UNKNOWN -> { }
+            }
+        }
+        if (depth <= 0) {
+            return quiescence(alpha, beta, ply);
+        }
+        if (countNode()) {
+            return 0;
+        }
+        long key = game.getPositionKey();
+        long entry = table.probe(key);
+        int tableMove = Move.NONE;
+        if (entry != TranspositionTable.MISS) {
+            tableMove = TranspositionTable.move(entry);
+            if (TranspositionTable.depth(entry) >= depth) {
+                int score = TranspositionTable.score(entry, ply);
+                int bound = TranspositionTable.bound(entry);
+                if (bound == TranspositionTable.EXACT
+                        || (bound == TranspositionTable.LOWER && score >= beta)
+                        || (bound == TranspositionTable.UPPER && score <= alpha)) {
+                    return score;
+                }
+            }
+        }
+
+        MoveGenerator generator = generators[ply].reset(game.getBoard(), game.getTeamTurn());
+        MoveList moves = moveLists[ply];
+        moves.clear();
+        generator.generate(moves);
+        if (moves.isEmpty()) {
+            // prefer the quickest mate, and the slowest when being mated
+            return generator.inCheck() ? -MATE + ply : 0;
+        }
+        ordering.score(moves, game.getBoard(), tableMove, ply);
+
+        int bound = TranspositionTable.UPPER;
+        int bestMove = Move.NONE;
+        for (int i = 0; i < moves.size(); i++) {
+            int move = ordering.next(moves, i, ply);
+            game.doMove(move);
+            int score = -alphaBeta(depth - 1, -beta, -alpha, ply + 1);
+            game.undoMove();
+            if (stopped) {
+                return 0;
+            }
+            if (score >= beta) {
+                ordering.cutoff(move, game.getBoard(), depth, ply);
+                table.store(key, move, depth, TranspositionTable.LOWER, TranspositionTable.toStored(beta, ply));
+                return beta;
+            }
+            if (score > alpha) {
+                alpha = score;
+                bestMove = move;
+                bound = TranspositionTable.EXACT;
+            }
+        }
+        table.store(key, bestMove, depth, bound, TranspositionTable.toStored(alpha, ply));
+        return alpha;
+    }
+
+    /**
+     * Searches captures and promotions until the position is quiet, letting the side to move
+     * stand pat on the static score. When in check every evasion is searched instead.
+     */
+    private int quiescence(int alpha, int beta, int ply) {
+        if (countNode()) {
+            return 0;
+        }
+        if (ply >= MAX_PLY) {
+            return Evaluation.evaluate(game.getBoard(), game.getTeamTurn());
+        }
+        MoveGenerator generator = generators[ply].reset(game.getBoard(), game.getTeamTurn());
+        MoveList moves = moveLists[ply];
+        moves.clear();
+        if (generator.inCheck()) {
+            generator.generate(moves);
+            if (moves.isEmpty()) {
+                return -MATE + ply;
+            }
+        } else {
+            int standPat = Evaluation.evaluate(game.getBoard(), game.getTeamTurn());
+            if (standPat >= beta) {
+                return beta;
+            }
+            if (standPat > alpha) {
+                alpha = standPat;
+            }
+            generator.generateCaptures(moves);
+        }
+        ordering.score(moves, game.getBoard(), Move.NONE, ply);
+
+        for (int i = 0; i < moves.size(); i++) {
+            game.doMove(ordering.next(moves, i, ply));
+            int score = -quiescence(-beta, -alpha, ply + 1);
+            game.undoMove();
+            if (stopped) {
+                return 0;
+            }
+            if (score >= beta) {
+                return beta;
+            }
+            if (score > alpha) {
+                alpha = score;
+            }
+        }
+        return alpha;
+    }
+
+    /**
+     * Drops the root moves that lead to a worse bitbase result than the best one. A move that
+     * leaves the tables (a capture of the last piece, or a promotion to a bishop or knight)
+     * counts as a draw.
+     */
+    private MoveList keepBestOutcome(MoveList moves) {
+        int[] ranks = new int[moves.size()];
+        int bestRank = Integer.MIN_VALUE;
+        for (int i = 0; i < moves.size(); i++) {
+            game.doMove(moves.get(i));
+            // the child is scored for the opponent, so a loss there is a win here
+            ranks[i] = switch (bitbases.probe(game.getBoard(), game.getTeamTurn())) {
+                case LOSS -> 1;
+                case WIN -> -1;
+                case DRAW, UNKNOWN -> 0;
+            };
+            game.undoMove();
+            bestRank = Math.max(bestRank, ranks[i]);
+        }
+        MoveList kept = new MoveList();
+        for (int i = 0; i < moves.size(); i++) {
+            if (ranks[i] == bestRank) {
+                kept.add(moves.get(i));
+            }
+        }
+        return kept;
+    }
+
+    /**
+     * Takes as many helper threads as are free, up to the number wanted
+     */
+    private static int acquireHelpers(int wanted) {
+        int count = Math.max(0, wanted);
+        while (count > 0 && !HELPER_PERMITS.tryAcquire(count)) {
+            count--;
+        }
+        return count;
+    }
+
+    /**
+     * Waits for the helpers to stop. If this thread is interrupted, the helpers still running
+     * are cancelled instead of waited for. Helper failures are never thrown from here.
+     * @param failure what the main thread threw, which helper failures are added to, or null
+     * @return the number of positions the helpers that finished visited
+     */
+    private static long joinHelpers(List<Future<Long>> helpers, Throwable failure) {
+        long nodes = 0;
+        boolean interrupted = false;
+        for (Future<Long> helper : helpers) {
+            if (interrupted) {
+                helper.cancel(true);
+                continue;
+            }
+            try {
+                nodes += helper.get();
+            } catch (InterruptedException e) {
+                interrupted = true;
+                helper.cancel(true);
+            } catch (ExecutionException | CancellationException e) {
+                Throwable cause = e instanceof ExecutionException ? e.getCause() : e;
+                if (failure != null) {
+                    failure.addSuppressed(cause);
+                } else {
+                    LOG.log(System.Logger.Level.WARNING, "Search helper failed", cause);
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        return nodes;
+    }
+
+    /**
+     * Counts a visited position and checks the limits. The clock is only read every so
+     * often, since reading it costs more than visiting a position.
+     * @return whether the search has to stop
+     */
+    private boolean countNode() {
+        nodes++;
+        if (mayStop && (finished.get() || nodes >= nodeLimit
+                || (timed && nodes % TIME_CHECK_INTERVAL == 0 && System.nanoTime() - deadline >= 0))) {
+            stopped = true;
+        }
+        return stopped;
+    }
+}
@@ -0,0 +1,45 @@
+package engine;
+
+/**
+ * When a search should stop, and how many threads it may use. The search always finishes at
+ * least depth 1, so it has a move to return even with a tiny budget; after that it stops at
+ * whichever limit comes first.
+ *
+ * @param depth the deepest iteration to search, in plies
+ * @param nodes the most positions the main thread visits
+ * @param millis the most wall-clock time to spend, in milliseconds
+ * @param threads how many threads to search with, including the caller's; helpers beyond
+ *                the process-wide cap are not started
+ */
+public record SearchLimits(int depth, long nodes, long millis, int threads) {
+
+    public static final int MAX_DEPTH = 64;
+
+    /**
+     * @return limits that only stop the search at a fixed depth
+     */
+    public static SearchLimits ofDepth(int depth) {
+        return new SearchLimits(depth, Long.MAX_VALUE, Long.MAX_VALUE, 1);
+    }
+
+    /**
+     * @return limits that only stop the search after a fixed time
+     */
+    public static SearchLimits ofMillis(long millis) {
+        return new SearchLimits(MAX_DEPTH, Long.MAX_VALUE, millis, 1);
+    }
+
+    /**
+     * @return limits that only stop the search after visiting a fixed number of positions
+     */
+    public static SearchLimits ofNodes(long nodes) {
+        return new SearchLimits(MAX_DEPTH, nodes, Long.MAX_VALUE, 1);
+    }
+
+    /**
+     * @return the same limits, searching with the given number of threads
+     */
+    public SearchLimits withThreads(int threads) {
+        return new SearchLimits(depth, nodes, millis, threads);
+    }
+}
@@ -0,0 +1,34 @@
+package engine;
+
+import chess.ChessMove;
+import chess.Move;
+
+/**
+ * The outcome of a search
+ *
+ * @param move the best move found, packed (see {@link Move}), or Move.NONE if there is no legal move
+ * @param score the score of the move for the side to move, in centipawns
+ * @param depth the deepest iteration that finished
+ * @param nodes the number of positions visited
+ * @param nanos how long the search took
+ */
+public record SearchResult(int move, int score, int depth, long nodes, long nanos) {
+
+    /**
+     * @return the best move as a ChessMove, or null if there is no legal move
+     */
+    public ChessMove bestMove() {
+        return move == Move.NONE ? null : Move.toChessMove(move);
+    }
+
+    /**
+     * @return whether the score means one side can force checkmate
+     */
+    public boolean isMateScore() {
+        return Math.abs(score) >= Search.MATE_BOUND;
+    }
+
+    public long nodesPerSecond() {
+        return nanos == 0 ? 0 : nodes * 1_000_000_000L / nanos;
+    }
+}
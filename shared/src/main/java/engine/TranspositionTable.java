@@ -0,0 +1,209 @@
+package engine;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A fixed-size table of search results keyed by position, kept off the Java heap in a direct
+ * buffer so a large table adds nothing for the garbage collector to scan.
+ * <p>
+ * The table is split into 32-byte buckets of two entries. The first entry keeps the deepest
+ * result (unless it is from an older search), and the second is always replaced, so recent
+ * shallow results still have somewhere to go. Each entry is two longs: the data, and the
+ * Zobrist key XORed with the data. Threads read and write entries without locking; an entry
+ * torn by two threads writing at once no longer XORs back to a real key, so it reads as a miss.
+ * <p>
+ * Entry data, from the low bits: move (16 bits), depth (8), bound (2), search generation (6)
+ * and score (32). A bound of 0 marks an empty entry.
+ */
+public final class TranspositionTable {
+
+    public static final int UPPER = 1;
+    public static final int LOWER = 2;
+    public static final int EXACT = 3;
+
+    /** What probe returns when the table has nothing for a position */
+    public static final long MISS = 0L;
+
+    private static final int BUCKET_BYTES = 32;
+    private static final int MAX_MEGABYTES = 1024;
+    private static final VarHandle LONGS = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+
+    private static final int DEPTH_SHIFT = 16;
+    private static final int BOUND_SHIFT = 24;
+    private static final int GENERATION_SHIFT = 26;
+    private static final int SCORE_SHIFT = 32;
+
+    private final ByteBuffer buffer;
+    private final long bucketMask;
+    private volatile int generation = 0;
+
+    private final LongAdder probes = new LongAdder();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder collisions = new LongAdder();
+    private final LongAdder stores = new LongAdder();
+
+    /**
+     * @param megabytes the size of the table, rounded down to a power of two (at most 1024)
+     */
+    public TranspositionTable(int megabytes) {
+        if (megabytes < 1 || megabytes > MAX_MEGABYTES) {
+            throw new IllegalArgumentException("Table size must be 1 to " + MAX_MEGABYTES + " MB");
+        }
+        long buckets = Long.highestOneBit(((long) megabytes << 20) / BUCKET_BYTES);
+        buffer = ByteBuffer.allocateDirect((int) (buckets * BUCKET_BYTES));
+        bucketMask = buckets - 1;
+    }
+
+    /**
+     * Marks the start of a new search, so entries from earlier searches give way to new ones
+     */
+    public void newSearch() {
+        generation = (generation + 1) & 63;
+    }
+
+    /**
+     * Looks a position up
+     * @param key the Zobrist key of the position
+     * @return the entry data, read with the static helpers, or {@link #MISS}
+     */
+    public long probe(long key) {
+        probes.increment();
+        int bucket = bucketOffset(key);
+        boolean occupied = false;
+        for (int offset = bucket; offset < bucket + BUCKET_BYTES; offset += 16) {
+            long data = (long) LONGS.getOpaque(buffer, offset + 8);
+            if (bound(data) == 0) {
+                continue;
+            }
+            if (((long) LONGS.getOpaque(buffer, offset) ^ data) == key) {
+                hits.increment();
+                return data;
+            }
+            occupied = true;
+        }
+        if (occupied) {
+            collisions.increment();
+        }
+        return MISS;
+    }
+
+    /**
+     * Saves a search result for a position
+     * @param key the Zobrist key of the position
+     * @param move the best move found, packed, or Move.NONE
+     * @param depth the depth searched below the position
+     * @param bound {@link #EXACT}, {@link #LOWER} (the score is at least this) or {@link #UPPER}
+     * @param score the score, already adjusted with {@link #toStored}
+     */
+    public void store(long key, int move, int depth, int bound, int score) {
+        stores.increment();
+        int bucket = bucketOffset(key);
+        long preferred = (long) LONGS.getOpaque(buffer, bucket + 8);
+        boolean preferredMatches = ((long) LONGS.getOpaque(buffer, bucket) ^ preferred) == key;
+        int offset = bucket + 16;
+        if (bound(preferred) == 0 || preferredMatches || depth >= depth(preferred)
+                || generation(preferred) != generation) {
+            offset = bucket;
+        }
+        long data = (move & 0xFFFFL)
+                | ((long) Math.min(depth, 255) << DEPTH_SHIFT)
+                | ((long) bound << BOUND_SHIFT)
+                | ((long) generation << GENERATION_SHIFT)
+                | ((long) score << SCORE_SHIFT);
+        LONGS.setOpaque(buffer, offset, key ^ data);
+        LONGS.setOpaque(buffer, offset + 8, data);
+    }
+
+    /**
+     * Empties the table and resets its statistics
+     */
+    public void clear() {
+        for (int offset = 0; offset < buffer.capacity(); offset += 8) {
+            LONGS.setOpaque(buffer, offset, 0L);
+        }
+        probes.reset();
+        hits.reset();
+        collisions.reset();
+        stores.reset();
+    }
+
+    /**
+     * @return the number of entries the table can hold
+     */
+    public long capacity() {
+        return (bucketMask + 1) * 2;
+    }
+
+    public Stats stats() {
+        return new Stats(probes.sum(), hits.sum(), collisions.sum(), stores.sum());
+    }
+
+    /**
+     * Counts of table use since it was made or cleared
+     *
+     * @param probes lookups
+     * @param hits lookups that found the position
+     * @param collisions lookups that missed but found other positions in the bucket
+     * @param stores results saved
+     */
+    public record Stats(long probes, long hits, long collisions, long stores) {
+        public double hitRate() {
+            return probes == 0 ? 0.0 : (double) hits / probes;
+        }
+    }
+
+    public static int move(long data) {
+        return (int) (data & 0xFFFF);
+    }
+
+    public static int depth(long data) {
+        return (int) (data >>> DEPTH_SHIFT) & 0xFF;
+    }
+
+    public static int bound(long data) {
+        return (int) (data >>> BOUND_SHIFT) & 3;
+    }
+
+    private static int generation(long data) {
+        return (int) (data >>> GENERATION_SHIFT) & 63;
+    }
+
+    /**
+     * @param data the entry data
+     * @param ply how far the probing position is from the root
+     * @return the stored score, with mate scores counted from the root again
+     */
+    public static int score(long data, int ply) {
+        int score = (int) (data >> SCORE_SHIFT);
+        if (score >= Search.MATE_BOUND) {
+            return score - ply;
+        } else if (score <= -Search.MATE_BOUND) {
+            return score + ply;
+        }
+        return score;
+    }
+
+    /**
+     * Mate scores count plies from the root, but an entry can be reached at any ply, so
+     * they are stored counted from the entry's own position instead
+     * @param score the score from the search
+     * @param ply how far the position is from the root
+     * @return the score to store
+     */
+    public static int toStored(int score, int ply) {
+        if (score >= Search.MATE_BOUND) {
+            return score + ply;
+        } else if (score <= -Search.MATE_BOUND) {
+            return score - ply;
+        }
+        return score;
+    }
+
+    private int bucketOffset(long key) {
+        return (int) (key & bucketMask) * BUCKET_BYTES;
+    }
+}
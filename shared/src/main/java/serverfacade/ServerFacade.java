@@ -53,6 +53,12 @@ public class ServerFacade {
         makeRequest("PUT", path, request, null, authToken);
     }
 
+    // seat computer
+    public void seatComputer(JoinRequest request, String authToken) throws ResponseException {
+        var path = "/game/computer";
+        makeRequest("PUT", path, request, null, authToken);
+    }
+
     // clear
     public void clear() throws ResponseException {
         var path = "/db";
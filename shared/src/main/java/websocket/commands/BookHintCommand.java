@@ -0,0 +1,8 @@
+package websocket.commands;
+
+public class BookHintCommand extends UserGameCommand {
+
+    public BookHintCommand(String authToken, Integer gameID) {
+        super(CommandType.BOOK_HINT, authToken, gameID);
+    }
+}
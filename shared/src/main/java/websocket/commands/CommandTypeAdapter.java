@@ -19,6 +19,7 @@ public class CommandTypeAdapter extends TypeAdapter<UserGameCommand> {
             case CONNECT -> gson.getAdapter(ConnectCommand.class).write(jsonWriter, (ConnectCommand) command);
             case RESIGN -> gson.getAdapter(ResignCommand.class).write(jsonWriter, (ResignCommand) command);
             case LEAVE -> gson.getAdapter(LeaveCommand.class).write(jsonWriter, (LeaveCommand) command);
+            case BOOK_HINT -> gson.getAdapter(BookHintCommand.class).write(jsonWriter, (BookHintCommand) command);
         }
     }
 
@@ -51,6 +52,7 @@ public class CommandTypeAdapter extends TypeAdapter<UserGameCommand> {
                 case MAKE_MOVE -> new MakeMoveCommand(authToken, gameID, move);
                 case RESIGN -> new ResignCommand(authToken, gameID);
                 case LEAVE -> new LeaveCommand(authToken, gameID);
+                case BOOK_HINT -> new BookHintCommand(authToken, gameID);
             };
         }
     }
@@ -0,0 +1,75 @@
+package chess;
+
+import org.junit.jupiter.api.Test;
+import passoff.chess.TestUtilities;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BatchAnalysisTests {
+
+    /**
+     * Plays random legal moves from the starting position
+     */
+    private static ChessGame randomGame(Random random, int plies) {
+        ChessGame game = new ChessGame();
+        for (int ply = 0; ply < plies && !game.evaluateStatus().isGameOver(); ply++) {
+            List<ChessMove> moves = new ArrayList<>(game.legalMoves(game.getTeamTurn()));
+            game.doMove(moves.get(random.nextInt(moves.size())));
+        }
+        return game;
+    }
+
+    @Test
+    void testReportsInStreamOrder() {
+        Random random = new Random(21);
+        List<ChessGame> games = IntStream.range(0, 500).mapToObj(i -> randomGame(random, i % 60)).toList();
+        List<BatchAnalysis.Report> expected = games.stream().map(game -> BatchAnalysis.analyze(game.clone())).toList();
+
+        List<BatchAnalysis.Report> reports = new ArrayList<>();
+        ForkJoinPool pool = new ForkJoinPool(3);
+        try {
+            // A batch size that does not divide the stream, so the last batch is short
+            BatchAnalysis.analyze(games.stream(), pool, 64, reports::add);
+        } finally {
+            pool.shutdown();
+        }
+        assertEquals(expected, reports);
+        assertEquals(20, reports.get(0).legalMoves());
+        assertEquals(GameStatus.Result.ONGOING, reports.get(0).status().result());
+    }
+
+    @Test
+    void testCheckmateHasNoMoves() {
+        ChessGame game = new ChessGame();
+        game.setBoard(TestUtilities.loadBoard("""
+                | | | | | | |k| |
+                | | | | | |p|p|p|
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                |R| | | | | |K| |
+                """));
+        game.doMove(new ChessMove(new ChessPosition(1, 1), new ChessPosition(8, 1), null));
+
+        List<BatchAnalysis.Report> reports = new ArrayList<>();
+        BatchAnalysis.analyze(Stream.of(game, new ChessGame()), reports::add);
+        assertEquals(new BatchAnalysis.Report(new GameStatus(GameStatus.Result.CHECKMATE, ChessGame.TeamColor.BLACK), 0),
+                reports.get(0));
+        assertEquals(20, reports.get(1).legalMoves());
+    }
+
+    @Test
+    void testBatchSizeMustBePositive() {
+        assertThrows(IllegalArgumentException.class,
+                () -> BatchAnalysis.analyze(Stream.of(new ChessGame()), ForkJoinPool.commonPool(), 0, report -> {}));
+    }
+}
@@ -0,0 +1,211 @@
+package chess;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import passoff.chess.TestUtilities;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BitbasesTests {
+
+    @TempDir
+    static Path directory;
+
+    private static Bitbases bitbases;
+
+    @BeforeAll
+    static void generate() throws IOException {
+        bitbases = Bitbases.openOrGenerate(directory);
+        Bitbases.install(bitbases);
+    }
+
+    @AfterAll
+    static void uninstall() {
+        Bitbases.install(null);
+    }
+
+    private static ChessGame loadGame(String boardText, ChessGame.TeamColor turn) {
+        ChessGame game = new ChessGame();
+        game.setBoard(TestUtilities.loadBoard(boardText));
+        game.setTeamTurn(turn);
+        return game;
+    }
+
+    @Test
+    void testTablesOnDisk() throws IOException {
+        for (String fileName : new String[] {"kqk.bin", "krk.bin", "kpk.bin"}) {
+            assertEquals(Bitbases.TABLE_BYTES, Files.size(directory.resolve(fileName)));
+        }
+        Path corrupt = Files.createDirectories(directory.resolve("corrupt"));
+        for (String fileName : new String[] {"kqk.bin", "krk.bin", "kpk.bin"}) {
+            Files.copy(directory.resolve(fileName), corrupt.resolve(fileName));
+        }
+        Files.write(corrupt.resolve("kpk.bin"), new byte[1], StandardOpenOption.APPEND);
+        assertThrows(IllegalArgumentException.class, () -> Bitbases.open(corrupt));
+    }
+
+    @Test
+    void testQueenStalemateIsDraw() {
+        ChessGame game = loadGame("""
+                |k| | | | | | | |
+                | | |Q| | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | |K|
+                """, ChessGame.TeamColor.BLACK);
+        assertEquals(Bitbases.Outcome.DRAW, game.endgameOutcome());
+        game.setTeamTurn(ChessGame.TeamColor.WHITE);
+        assertEquals(Bitbases.Outcome.WIN, game.endgameOutcome());
+    }
+
+    @Test
+    void testUndefendedRookIsTaken() {
+        ChessGame game = loadGame("""
+                |k| | | | | | | |
+                |R| | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | |K|
+                """, ChessGame.TeamColor.BLACK);
+        assertEquals(Bitbases.Outcome.DRAW, game.endgameOutcome());
+    }
+
+    @Test
+    void testPawnWithKingOnKeySquareWins() {
+        ChessGame game = loadGame("""
+                | | | | |k| | | |
+                | | | | | | | | |
+                | | | | |K| | | |
+                | | | | | | | | |
+                | | | | |P| | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                """, ChessGame.TeamColor.WHITE);
+        assertEquals(Bitbases.Outcome.WIN, game.endgameOutcome());
+        game.setTeamTurn(ChessGame.TeamColor.BLACK);
+        assertEquals(Bitbases.Outcome.LOSS, game.endgameOutcome());
+    }
+
+    @Test
+    void testRookPawnAgainstCornerIsDraw() {
+        ChessGame game = loadGame("""
+                |k| | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                |P|K| | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                """, ChessGame.TeamColor.WHITE);
+        assertEquals(Bitbases.Outcome.DRAW, game.endgameOutcome());
+    }
+
+    @Test
+    void testMirroredForBlack() {
+        ChessGame game = loadGame("""
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | |p| | | |
+                | | | | | | | | |
+                | | | | |k| | | |
+                | | | | | | | | |
+                | | | | |K| | | |
+                """, ChessGame.TeamColor.BLACK);
+        assertEquals(Bitbases.Outcome.WIN, game.endgameOutcome());
+        game.setTeamTurn(ChessGame.TeamColor.WHITE);
+        assertEquals(Bitbases.Outcome.LOSS, game.endgameOutcome());
+    }
+
+    @Test
+    void testNotCovered() {
+        assertEquals(Bitbases.Outcome.UNKNOWN, new ChessGame().endgameOutcome());
+        ChessGame game = loadGame("""
+                | | | | |k| | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | |N| | |
+                | | | | | | | | |
+                | | | | |K| | | |
+                """, ChessGame.TeamColor.WHITE);
+        assertEquals(Bitbases.Outcome.UNKNOWN, game.endgameOutcome());
+    }
+
+    /**
+     * Checks sampled positions against their children, found with the game's own move
+     * generator: a side wins if some move leaves the opponent lost, and loses if it is
+     * mated or every move leaves the opponent winning
+     */
+    @Test
+    void testResultsAgreeWithChildren() {
+        Random random = new Random(19);
+        ChessPiece.PieceType[] types = {ChessPiece.PieceType.QUEEN, ChessPiece.PieceType.ROOK, ChessPiece.PieceType.PAWN};
+        int checked = 0;
+        while (checked < 3000) {
+            ChessGame.TeamColor strong = random.nextBoolean() ? ChessGame.TeamColor.WHITE : ChessGame.TeamColor.BLACK;
+            ChessGame.TeamColor weak = strong == ChessGame.TeamColor.WHITE ? ChessGame.TeamColor.BLACK :
+                    ChessGame.TeamColor.WHITE;
+            int[] squares = {random.nextInt(64), random.nextInt(64), random.nextInt(64)};
+            if (squares[0] == squares[1] || squares[0] == squares[2] || squares[1] == squares[2]
+                    || (Bitboards.kingAttacks(squares[0]) & (1L << squares[1])) != 0) {
+                continue;
+            }
+            ChessPiece.PieceType type = types[random.nextInt(types.length)];
+            int pieceRow = Bitboards.row(squares[2]);
+            if (type == ChessPiece.PieceType.PAWN && (pieceRow == 1 || pieceRow == 8)) {
+                continue;
+            }
+            ChessBoard board = new ChessBoard();
+            board.addPiece(Bitboards.position(squares[0]), new ChessPiece(strong, ChessPiece.PieceType.KING));
+            board.addPiece(Bitboards.position(squares[1]), new ChessPiece(weak, ChessPiece.PieceType.KING));
+            board.addPiece(Bitboards.position(squares[2]), new ChessPiece(strong, type));
+            ChessGame game = new ChessGame();
+            game.setBoard(board);
+            game.setTeamTurn(random.nextBoolean() ? strong : weak);
+            ChessGame.TeamColor waiting = game.getTeamTurn() == strong ? weak : strong;
+            if (game.isInCheck(waiting)) {
+                continue;
+            }
+
+            assertEquals(expectedFromChildren(game), bitbases.probe(board, game.getTeamTurn()));
+            checked++;
+        }
+    }
+
+    private Bitbases.Outcome expectedFromChildren(ChessGame game) {
+        boolean anyMove = false;
+        boolean allWin = true;
+        for (ChessMove move : game.legalMoves(game.getTeamTurn())) {
+            anyMove = true;
+            game.doMove(move);
+            Bitbases.Outcome child = bitbases.probe(game.getBoard(), game.getTeamTurn());
+            game.undoMove();
+            if (child == Bitbases.Outcome.LOSS) {
+                return Bitbases.Outcome.WIN;
+            }
+            allWin &= child == Bitbases.Outcome.WIN;
+        }
+        if (!anyMove) {
+            return game.isInCheck(game.getTeamTurn()) ? Bitbases.Outcome.LOSS : Bitbases.Outcome.DRAW;
+        }
+        return allWin ? Bitbases.Outcome.LOSS : Bitbases.Outcome.DRAW;
+    }
+}
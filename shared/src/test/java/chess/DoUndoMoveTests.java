@@ -0,0 +1,98 @@
+package chess;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DoUndoMoveTests {
+
+    private static List<ChessMove> allValidMoves(ChessGame game) {
+        List<ChessMove> moves = new ArrayList<>();
+        for (int row = 1; row <= 8; row++) {
+            for (int col = 1; col <= 8; col++) {
+                ChessPosition position = new ChessPosition(row, col);
+                ChessPiece piece = game.getBoard().getPiece(position);
+                if (piece != null && piece.getTeamColor() == game.getTeamTurn()) {
+                    moves.addAll(game.validMoves(position));
+                }
+            }
+        }
+        return moves;
+    }
+
+    @Test
+    void testDoUndoSingleMove() {
+        ChessGame game = new ChessGame();
+        ChessBoard original = game.getBoard().clone();
+
+        game.doMove(new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null));
+        assertNotEquals(original, game.getBoard());
+        assertEquals(ChessGame.TeamColor.BLACK, game.getTeamTurn());
+
+        game.undoMove();
+        assertEquals(original, game.getBoard());
+        assertEquals(ChessGame.TeamColor.WHITE, game.getTeamTurn());
+        assertEquals(0, game.getUndoCount());
+    }
+
+    @Test
+    void testUndoCaptureAndPromotion() {
+        ChessBoard board = new ChessBoard();
+        board.addPiece(new ChessPosition(1, 1), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KING));
+        board.addPiece(new ChessPosition(8, 8), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KING));
+        board.addPiece(new ChessPosition(7, 2), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN));
+        board.addPiece(new ChessPosition(8, 1), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.ROOK));
+        ChessGame game = new ChessGame();
+        game.setBoard(board);
+        ChessBoard original = board.clone();
+
+        game.doMove(new ChessMove(new ChessPosition(7, 2), new ChessPosition(8, 1), ChessPiece.PieceType.KNIGHT));
+        assertEquals(new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KNIGHT),
+                board.getPiece(new ChessPosition(8, 1)));
+        assertNull(board.getPiece(new ChessPosition(7, 2)));
+
+        game.undoMove();
+        assertEquals(original, board);
+        assertEquals(original.pieces(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.ROOK),
+                board.pieces(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.ROOK));
+    }
+
+    @Test
+    void testUndoWithNothingToUndo() {
+        assertThrows(IllegalStateException.class, () -> new ChessGame().undoMove());
+    }
+
+    @Test
+    void testLongRandomSequenceRestoresBoard() {
+        Random random = new Random(240);
+        ChessGame game = new ChessGame();
+        ChessBoard original = game.getBoard().clone();
+        List<ChessBoard> history = new ArrayList<>();
+
+        for (int i = 0; i < 5000; i++) {
+            List<ChessMove> moves = allValidMoves(game);
+            if (moves.isEmpty() || (game.getUndoCount() > 0 && random.nextInt(4) == 0)) {
+                game.undoMove();
+                assertEquals(history.remove(history.size() - 1), game.getBoard());
+            } else {
+                history.add(game.getBoard().clone());
+                game.doMove(moves.get(random.nextInt(moves.size())));
+            }
+        }
+
+        while (game.getUndoCount() > 0) {
+            game.undoMove();
+        }
+        assertEquals(original, game.getBoard());
+        assertEquals(ChessGame.TeamColor.WHITE, game.getTeamTurn());
+        for (ChessGame.TeamColor color : ChessGame.TeamColor.values()) {
+            for (ChessPiece.PieceType type : ChessPiece.PieceType.values()) {
+                assertEquals(original.pieces(color, type), game.getBoard().pieces(color, type));
+            }
+        }
+    }
+}
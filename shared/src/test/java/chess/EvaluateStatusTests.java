@@ -0,0 +1,169 @@
+package chess;
+
+import org.junit.jupiter.api.Test;
+import passoff.chess.TestUtilities;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EvaluateStatusTests {
+
+    private static ChessGame loadGame(String boardText, ChessGame.TeamColor turn) {
+        ChessGame game = new ChessGame();
+        game.setBoard(TestUtilities.loadBoard(boardText));
+        game.setTeamTurn(turn);
+        return game;
+    }
+
+    private static ChessMove move(int startRow, int startCol, int endRow, int endCol) {
+        return new ChessMove(new ChessPosition(startRow, startCol), new ChessPosition(endRow, endCol), null);
+    }
+
+    @Test
+    void testStartingPositionIsOngoing() {
+        assertEquals(new GameStatus(GameStatus.Result.ONGOING, ChessGame.TeamColor.WHITE),
+                new ChessGame().evaluateStatus());
+    }
+
+    @Test
+    void testFoolsMate() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        game.makeMove(move(2, 6, 3, 6));
+        game.makeMove(move(7, 5, 5, 5));
+        game.makeMove(move(2, 7, 4, 7));
+        game.makeMove(move(8, 4, 4, 8));
+
+        GameStatus status = game.evaluateStatus();
+        assertEquals(new GameStatus(GameStatus.Result.CHECKMATE, ChessGame.TeamColor.WHITE), status);
+        assertTrue(status.isGameOver());
+        assertTrue(game.isInCheckmate(ChessGame.TeamColor.WHITE));
+    }
+
+    @Test
+    void testCheck() {
+        ChessGame game = loadGame("""
+                | | | | |k| | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | |r| | | |
+                |R| | | |K| | | |
+                """, ChessGame.TeamColor.WHITE);
+        assertEquals(new GameStatus(GameStatus.Result.CHECK, ChessGame.TeamColor.WHITE), game.evaluateStatus());
+    }
+
+    @Test
+    void testStalemate() {
+        ChessGame game = loadGame("""
+                |k| | | | | | | |
+                | | |Q| | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | |K|
+                """, ChessGame.TeamColor.BLACK);
+        assertEquals(new GameStatus(GameStatus.Result.STALEMATE, ChessGame.TeamColor.BLACK), game.evaluateStatus());
+        assertTrue(game.isInStalemate(ChessGame.TeamColor.BLACK));
+    }
+
+    @Test
+    void testInsufficientMaterialDraw() {
+        ChessGame game = loadGame("""
+                | | | | |k| | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | |N| | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | |K| | | |
+                """, ChessGame.TeamColor.WHITE);
+        assertEquals(GameStatus.Result.DRAW, game.evaluateStatus().result());
+    }
+
+    @Test
+    void testStatusFollowsMoves() throws InvalidMoveException {
+        ChessGame game = loadGame("""
+                | | | | |k| | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                |R| | | |K| | | |
+                """, ChessGame.TeamColor.WHITE);
+        GameStatus before = game.evaluateStatus();
+        assertSame(before, game.evaluateStatus());
+
+        game.makeMove(move(1, 1, 8, 1));
+        assertEquals(new GameStatus(GameStatus.Result.CHECK, ChessGame.TeamColor.BLACK), game.evaluateStatus());
+        game.undoMove();
+        assertEquals(before, game.evaluateStatus());
+    }
+
+    @Test
+    void testThreefoldRepetition() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        for (int cycle = 1; cycle <= 2; cycle++) {
+            assertEquals(GameStatus.Result.ONGOING, game.evaluateStatus().result());
+            game.makeMove(move(1, 7, 3, 6));
+            game.makeMove(move(8, 7, 6, 6));
+            game.makeMove(move(3, 6, 1, 7));
+            game.makeMove(move(6, 6, 8, 7));
+            assertEquals(cycle, game.repetitionCount());
+            // the server stores the game and loads it again between moves
+            game = GameCodec.decode(GameCodec.encode(game));
+        }
+        GameStatus status = game.evaluateStatus();
+        assertEquals(GameStatus.Result.REPETITION, status.result());
+        assertTrue(status.isGameOver());
+    }
+
+    @Test
+    void testPawnMoveEndsRepetitionAndResetsClock() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        game.makeMove(move(1, 7, 3, 6));
+        game.makeMove(move(8, 7, 6, 6));
+        assertEquals(2, game.getHalfmoveClock());
+        game.makeMove(move(2, 5, 4, 5));
+        assertEquals(0, game.getHalfmoveClock());
+        game.undoMove();
+        assertEquals(2, game.getHalfmoveClock());
+        game.makeMove(move(2, 5, 4, 5));
+
+        game.makeMove(move(6, 6, 8, 7));
+        game.makeMove(move(3, 6, 1, 7));
+        game.makeMove(move(8, 7, 6, 6));
+        game.makeMove(move(1, 7, 3, 6));
+        assertEquals(1, game.repetitionCount());
+        assertEquals(4, game.getHalfmoveClock());
+    }
+
+    @Test
+    void testFiftyMoveRule() throws InvalidMoveException {
+        // The rooks cycle through 8 and 7 squares, so no position comes up again for 56 moves
+        ChessGame game = loadGame("""
+                | | | | | | | |k|
+                |r| | | | | | | |
+                |p|p|p|p|p|p|p|p|
+                | | | | | | | | |
+                | | | | | | | | |
+                |P|P|P|P|P|P|P|P|
+                |R| | | | | | | |
+                | | | | | | | |K|
+                """, ChessGame.TeamColor.WHITE);
+        for (int moveNumber = 0; moveNumber < 50; moveNumber++) {
+            assertEquals(GameStatus.Result.ONGOING, game.evaluateStatus().result());
+            game.makeMove(move(2, moveNumber % 8 + 1, 2, (moveNumber + 1) % 8 + 1));
+            assertEquals(GameStatus.Result.ONGOING, game.evaluateStatus().result());
+            game.makeMove(move(7, moveNumber % 7 + 1, 7, (moveNumber + 1) % 7 + 1));
+        }
+        assertEquals(ChessGame.FIFTY_MOVE_PLIES, game.getHalfmoveClock());
+        assertEquals(0, game.repetitionCount());
+        assertEquals(GameStatus.Result.FIFTY_MOVES, game.evaluateStatus().result());
+    }
+}
@@ -0,0 +1,87 @@
+package chess;
+
+import org.junit.jupiter.api.Test;
+import passoff.chess.TestUtilities;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FenTests {
+
+    private static final String START = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w - - 0 1";
+
+    @Test
+    void testStartingPosition() {
+        assertEquals(START, new ChessGame().toFen());
+        ChessGame game = ChessGame.fromFen("rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1");
+        assertEquals(new ChessGame(), game);
+        assertEquals(new ChessGame().getPositionKey(), game.getPositionKey());
+    }
+
+    @Test
+    void testMatchesLoadedBoard() {
+        ChessGame game = ChessGame.fromFen("r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 b - - 3 10");
+        assertEquals(TestUtilities.loadBoard("""
+                |r| | | | |r|k| |
+                | |p|p| |q|p|p|p|
+                |p| |n|p| |n| | |
+                | | |b| |p| |B| |
+                | | |B| |P| |b| |
+                |P| |N|P| |N| | |
+                | |P|P| |Q|P|P|P|
+                |R| | | | |R|K| |
+                """), game.getBoard());
+        assertEquals(ChessGame.TeamColor.BLACK, game.getTeamTurn());
+        assertEquals(3, game.getHalfmoveClock());
+        assertEquals("r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 b - - 3 10", game.toFen());
+    }
+
+    @Test
+    void testClocksFollowMoves() {
+        ChessGame game = new ChessGame();
+        game.doMove(new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null));
+        assertEquals("rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b - - 0 1", game.toFen());
+        game.doMove(new ChessMove(new ChessPosition(8, 7), new ChessPosition(6, 6), null));
+        assertEquals("rnbqkb1r/pppppppp/5n2/8/4P3/8/PPPP1PPP/RNBQKBNR w - - 1 2", game.toFen());
+
+        ChessGame loaded = ChessGame.fromFen(game.toFen());
+        assertEquals(game, loaded);
+        loaded.doMove(new ChessMove(new ChessPosition(1, 7), new ChessPosition(3, 6), null));
+        assertEquals("rnbqkb1r/pppppppp/5n2/8/4P3/5N2/PPPP1PPP/RNBQKB1R b - - 2 2", loaded.toFen());
+    }
+
+    @Test
+    void testClocksAreOptional() {
+        ChessGame game = ChessGame.fromFen("8/8/8/4k3/8/8/8/4K2R b");
+        assertEquals(0, game.getHalfmoveClock());
+        assertEquals("8/8/8/4k3/8/8/8/4K2R b - - 0 1", game.toFen());
+        assertEquals(game, ChessGame.fromFen("8/8/8/4k3/8/8/8/4K2R b K e3"));
+    }
+
+    @Test
+    void testFiftyMoveClockCarriesOver() {
+        ChessGame game = ChessGame.fromFen("8/8/8/4k3/8/8/8/4K2R w - - 100 80");
+        assertEquals(GameStatus.Result.FIFTY_MOVES, game.evaluateStatus().result());
+    }
+
+    @Test
+    void testRejectsBadFen() {
+        String[] bad = {
+                "",
+                "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP w - - 0 1",
+                "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBN w - - 0 1",
+                "rnbqkbnr/pppppppp/9/8/8/8/PPPPPPPP/RNBQKBNR w - - 0 1",
+                "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNRR w - - 0 1",
+                "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNX w - - 0 1",
+                "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR x - - 0 1",
+                "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQx - 0 1",
+                "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w - e4 0 1",
+                "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w - - x 1",
+                "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w - - 0 0",
+                "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w - - 0",
+                "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w - - 0 1 extra",
+        };
+        for (String fen : bad) {
+            assertThrows(IllegalArgumentException.class, () -> ChessGame.fromFen(fen), fen);
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package chess;
+
+import com.google.gson.Gson;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GameCodecTests {
+
+    private static ChessMove move(String from, String to) {
+        return new ChessMove(new ChessPosition(from.charAt(1) - '0', from.charAt(0) - 'a' + 1),
+                new ChessPosition(to.charAt(1) - '0', to.charAt(0) - 'a' + 1), null);
+    }
+
+    @Test
+    void testStartingPosition() {
+        ChessGame game = new ChessGame();
+        byte[] data = GameCodec.encode(game);
+        assertEquals(41, data.length);
+        assertEquals(GameCodec.VERSION, data[0]);
+
+        ChessGame decoded = GameCodec.decode(data);
+        assertEquals(game, decoded);
+        assertEquals(game.getPositionKey(), decoded.getPositionKey());
+        assertFalse(decoded.getGameOver());
+        assertEquals(game.toFen(), decoded.toFen());
+        assertTrue(data.length * 20 < new Gson().toJson(game).length());
+    }
+
+    @Test
+    void testKeepsClocksAndFlags() {
+        ChessGame game = ChessGame.fromFen("r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 b - - 37 40");
+        game.setGameOver(true);
+        ChessGame decoded = GameCodec.decode(GameCodec.encode(game));
+        assertEquals(game.toFen(), decoded.toFen());
+        assertTrue(decoded.getGameOver());
+    }
+
+    /**
+     * A repetition started before the game was saved is still found after it is loaded, the
+     * way the server reloads the game for every move
+     */
+    @Test
+    void testRepetitionSurvivesReload() {
+        ChessGame game = new ChessGame();
+        String[][] moves = {{"g1", "f3"}, {"g8", "f6"}, {"f3", "g1"}, {"f6", "g8"},
+                {"g1", "f3"}, {"g8", "f6"}, {"f3", "g1"}, {"f6", "g8"}};
+        for (String[] move : moves) {
+            game = GameCodec.decode(GameCodec.encode(game));
+            game.doMove(move(move[0], move[1]));
+        }
+        assertEquals(GameStatus.Result.REPETITION, game.evaluateStatus().result());
+        assertEquals(8, game.getHalfmoveClock());
+        assertEquals(41 + 8 * 8, GameCodec.encode(game).length);
+
+        // A pawn move means no earlier position can come back, so no keys are kept
+        game.doMove(move("e2", "e4"));
+        assertEquals(41, GameCodec.encode(game).length);
+        assertEquals("rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b - - 0 5",
+                GameCodec.decode(GameCodec.encode(game)).toFen());
+    }
+
+    @Test
+    void testRejectsBadData() {
+        byte[] data = GameCodec.encode(new ChessGame());
+        assertThrows(IllegalArgumentException.class, () -> GameCodec.decode(new byte[0]));
+        assertThrows(IllegalArgumentException.class, () -> GameCodec.decode(Arrays.copyOf(data, 20)));
+        assertThrows(IllegalArgumentException.class, () -> GameCodec.decode(Arrays.copyOf(data, data.length + 1)));
+        byte[] newer = data.clone();
+        newer[0] = GameCodec.VERSION + 1;
+        assertThrows(IllegalArgumentException.class, () -> GameCodec.decode(newer));
+        byte[] badPiece = data.clone();
+        badPiece[2] = (byte) 0xFF;
+        assertThrows(IllegalArgumentException.class, () -> GameCodec.decode(badPiece));
+    }
+
+    @Test
+    void testJsonLeavesOutKeyHistory() {
+        ChessGame game = new ChessGame();
+        game.doMove(move("g1", "f3"));
+        game.doMove(move("g8", "f6"));
+        String json = new Gson().toJson(game);
+        assertFalse(json.contains("keyHistory"), json);
+
+        ChessGame loaded = new Gson().fromJson(json, ChessGame.class);
+        assertEquals(game, loaded);
+        assertEquals(2, loaded.getHalfmoveClock());
+        assertEquals(2, loaded.getPlyNumber());
+        assertEquals(0, loaded.repetitionCount());
+        assertEquals(41, GameCodec.encode(loaded).length);
+    }
+}
@@ -0,0 +1,91 @@
+package chess;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class KingSquareTests {
+
+    @Test
+    void testStartingKings() {
+        ChessBoard board = new ChessBoard();
+        board.resetBoard();
+        assertEquals(new ChessPosition(1, 5), board.getKingPosition(ChessGame.TeamColor.WHITE));
+        assertEquals(new ChessPosition(8, 5), board.getKingPosition(ChessGame.TeamColor.BLACK));
+    }
+
+    @Test
+    void testEmptyBoardHasNoKings() {
+        ChessBoard board = new ChessBoard();
+        assertEquals(-1, board.kingSquare(ChessGame.TeamColor.WHITE));
+        assertNull(board.getKingPosition(ChessGame.TeamColor.BLACK));
+    }
+
+    @Test
+    void testKingFollowsMovesAndUndo() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        game.makeMove(new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null));
+        game.makeMove(new ChessMove(new ChessPosition(7, 5), new ChessPosition(5, 5), null));
+        game.makeMove(new ChessMove(new ChessPosition(1, 5), new ChessPosition(2, 5), null));
+        assertEquals(Bitboards.square(2, 5), game.getBoard().kingSquare(ChessGame.TeamColor.WHITE));
+
+        game.undoMove();
+        assertEquals(Bitboards.square(1, 5), game.getBoard().kingSquare(ChessGame.TeamColor.WHITE));
+    }
+
+    @Test
+    void testKingRemovedAndCaptured() {
+        ChessBoard board = new ChessBoard();
+        board.resetBoard();
+        board.addPiece(new ChessPosition(8, 5), null);
+        assertEquals(-1, board.kingSquare(ChessGame.TeamColor.BLACK));
+
+        board.addPiece(new ChessPosition(4, 4), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KING));
+        board.addPiece(new ChessPosition(4, 4), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.QUEEN));
+        assertEquals(-1, board.kingSquare(ChessGame.TeamColor.BLACK));
+    }
+
+    @Test
+    void testSetBoardKeepsTrackingConsistent() {
+        ChessBoard source = new ChessBoard();
+        source.addPiece(new ChessPosition(3, 3), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KING));
+        source.addPiece(new ChessPosition(6, 7), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KING));
+
+        ChessBoard board = new ChessBoard();
+        board.resetBoard();
+        board.setBoard(source.clone().getBoard());
+
+        assertEquals(Bitboards.square(3, 3), board.kingSquare(ChessGame.TeamColor.WHITE));
+        assertEquals(Bitboards.square(6, 7), board.kingSquare(ChessGame.TeamColor.BLACK));
+
+        board.resetBoard();
+        assertEquals(Bitboards.square(1, 5), board.kingSquare(ChessGame.TeamColor.WHITE));
+    }
+
+    @Test
+    void testSetBoardAfterEditingSquaresInPlace() {
+        ChessBoard board = new ChessBoard();
+        board.resetBoard();
+        ChessPosition[][] squares = board.getBoard();
+        squares[0][4].setPiece(null);
+        squares[2][2].setPiece(new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KING));
+        board.getSquare(new ChessPosition(5, 3))
+                .setPiece(new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.QUEEN));
+        board.setBoard(board.getBoard());
+
+        ChessBoard expected = new ChessBoard();
+        expected.resetBoard();
+        expected.addPiece(new ChessPosition(1, 5), null);
+        expected.addPiece(new ChessPosition(3, 3), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KING));
+        expected.addPiece(new ChessPosition(5, 3), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.QUEEN));
+
+        assertEquals(Bitboards.square(3, 3), board.kingSquare(ChessGame.TeamColor.WHITE));
+        assertEquals(expected.getPositionKey(), board.getPositionKey());
+        ChessGame game = new ChessGame();
+        game.setBoard(board);
+        assertTrue(game.isInCheck(ChessGame.TeamColor.WHITE));
+        ChessGame expectedGame = new ChessGame();
+        expectedGame.setBoard(expected);
+        assertEquals(expectedGame.getPositionKey(), game.getPositionKey());
+    }
+}
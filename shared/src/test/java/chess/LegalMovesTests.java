@@ -0,0 +1,89 @@
+package chess;
+
+import org.junit.jupiter.api.Test;
+import passoff.chess.TestUtilities;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LegalMovesTests {
+
+    private static Set<ChessMove> perSquareMoves(ChessGame game, ChessGame.TeamColor color) {
+        Set<ChessMove> moves = new HashSet<>();
+        for (int row = 1; row <= 8; row++) {
+            for (int col = 1; col <= 8; col++) {
+                ChessPosition position = new ChessPosition(row, col);
+                ChessPiece piece = game.getBoard().getPiece(position);
+                if (piece != null && piece.getTeamColor() == color) {
+                    moves.addAll(game.validMoves(position));
+                }
+            }
+        }
+        return moves;
+    }
+
+    private static void assertMatchesPerSquare(ChessGame game) {
+        for (ChessGame.TeamColor color : ChessGame.TeamColor.values()) {
+            Set<ChessMove> expected = perSquareMoves(game, color);
+            Collection<ChessMove> moves = game.legalMoves(color);
+            assertEquals(expected, new HashSet<>(moves));
+            assertEquals(expected.size(), moves.size());
+            assertEquals(expected.size(), game.legalMoveCount(color));
+            for (ChessMove move : expected) {
+                assertTrue(moves.contains(move));
+            }
+        }
+    }
+
+    @Test
+    void testStartingPosition() {
+        ChessGame game = new ChessGame();
+        assertEquals(20, game.legalMoveCount(ChessGame.TeamColor.WHITE));
+        assertMatchesPerSquare(game);
+    }
+
+    @Test
+    void testPinsChecksAndPromotions() {
+        ChessGame game = new ChessGame();
+        game.setBoard(TestUtilities.loadBoard("""
+                | |n| | |k| | | |
+                |P| | | | | | | |
+                | | | | |r| | | |
+                | | | | | | | | |
+                | |b| | | | | | |
+                | | | | | | | | |
+                | | | |N| | | | |
+                | | | | |K| | | |
+                """));
+        assertMatchesPerSquare(game);
+    }
+
+    @Test
+    void testNoMovesOnceGameIsOver() {
+        ChessGame game = new ChessGame();
+        game.setGameOver(true);
+        assertTrue(game.legalMoves(ChessGame.TeamColor.WHITE).isEmpty());
+        assertEquals(0, game.legalMoveCount(ChessGame.TeamColor.WHITE));
+    }
+
+    @Test
+    void testSnapshotIsReadOnlyAndStable() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        Collection<ChessMove> moves = game.legalMoves(ChessGame.TeamColor.WHITE);
+        ChessMove move = moves.iterator().next();
+        game.makeMove(move);
+
+        assertEquals(20, moves.size());
+        assertThrows(UnsupportedOperationException.class, () -> moves.add(move));
+        Iterator<ChessMove> iterator = moves.iterator();
+        for (int i = 0; i < 20; i++) {
+            iterator.next();
+        }
+        assertThrows(NoSuchElementException.class, iterator::next);
+    }
+}
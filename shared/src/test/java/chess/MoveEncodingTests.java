@@ -0,0 +1,96 @@
+package chess;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MoveEncodingTests {
+
+    @Test
+    void testRoundTrip() {
+        ChessMove move = new ChessMove(new ChessPosition(7, 2), new ChessPosition(8, 1), ChessPiece.PieceType.KNIGHT);
+        int packed = Move.of(move);
+
+        assertEquals(Bitboards.square(7, 2), Move.from(packed));
+        assertEquals(Bitboards.square(8, 1), Move.to(packed));
+        assertEquals(ChessPiece.PieceType.KNIGHT, Move.promotion(packed));
+        assertFalse(Move.isCapture(packed));
+        assertEquals(move, Move.toChessMove(packed));
+        assertEquals("b7a8n", Move.toString(packed));
+    }
+
+    @Test
+    void testFlagsDoNotChangeIdentity() {
+        int quiet = Move.encode(12, 28, null, 0);
+        int capture = Move.encode(12, 28, null, Move.CAPTURE);
+
+        assertTrue(Move.isCapture(capture));
+        assertEquals(quiet, Move.withoutFlags(capture));
+
+        MoveList moves = new MoveList();
+        moves.add(capture);
+        assertTrue(moves.contains(quiet));
+        assertFalse(moves.contains(Move.encode(12, 20, null, 0)));
+    }
+
+    @Test
+    void testGeneratedMovesMatchValidMoves() {
+        ChessGame game = new ChessGame();
+        MoveList moves = new MoveList();
+        new MoveGenerator(game.getBoard(), ChessGame.TeamColor.WHITE).generate(moves);
+
+        int validMoveCount = 0;
+        for (int col = 1; col <= 8; col++) {
+            for (int row = 1; row <= 2; row++) {
+                for (ChessMove move : game.validMoves(new ChessPosition(row, col))) {
+                    assertTrue(moves.contains(Move.of(move)), "Missing " + move);
+                    validMoveCount++;
+                }
+            }
+        }
+        assertEquals(validMoveCount, moves.size());
+    }
+
+    @Test
+    void testMakeMoveChecksPromotionPiece() {
+        ChessBoard board = new ChessBoard();
+        board.addPiece(new ChessPosition(1, 1), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KING));
+        board.addPiece(new ChessPosition(8, 8), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KING));
+        board.addPiece(new ChessPosition(7, 3), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN));
+        ChessGame game = new ChessGame();
+        game.setBoard(board);
+
+        ChessPosition start = new ChessPosition(7, 3);
+        ChessPosition end = new ChessPosition(8, 3);
+        assertThrows(InvalidMoveException.class, () -> game.makeMove(new ChessMove(start, end, null)));
+        assertThrows(InvalidMoveException.class,
+                () -> game.makeMove(new ChessMove(start, end, ChessPiece.PieceType.KING)));
+        assertDoesNotThrow(() -> game.makeMove(new ChessMove(start, end, ChessPiece.PieceType.ROOK)));
+    }
+
+    /**
+     * Off-board squares would otherwise pack as a different, legal, move
+     */
+    @Test
+    void testRejectsOffBoardSquares() {
+        ChessGame game = ChessGame.fromFen("7k/8/8/8/8/8/1p6/7K b");
+        ChessMove[] bad = {
+                new ChessMove(new ChessPosition(2, 2), new ChessPosition(9, 2), ChessPiece.PieceType.QUEEN),
+                new ChessMove(new ChessPosition(2, 2), new ChessPosition(0, 2), ChessPiece.PieceType.QUEEN),
+                new ChessMove(new ChessPosition(8, 8), new ChessPosition(8, 9), null),
+                new ChessMove(new ChessPosition(8, 8), new ChessPosition(7, 0), null),
+                new ChessMove(new ChessPosition(2, 2), new ChessPosition(1, 2), ChessPiece.PieceType.KING),
+                new ChessMove(new ChessPosition(2, 2), new ChessPosition(1, 2), ChessPiece.PieceType.PAWN),
+        };
+        for (ChessMove move : bad) {
+            assertThrows(InvalidMoveException.class, () -> game.makeMove(move));
+        }
+        assertEquals("7k/8/8/8/8/8/1p6/7K b - - 0 1", game.toFen());
+
+        // a column past the edge would wrap onto the next row: (4, 0) is h3
+        ChessGame start = new ChessGame();
+        assertThrows(InvalidMoveException.class, () -> start.makeMove(
+                new ChessMove(new ChessPosition(2, 1), new ChessPosition(4, 0), null)));
+        assertEquals(0, start.getUndoCount());
+    }
+}
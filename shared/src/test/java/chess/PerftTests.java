@@ -0,0 +1,98 @@
+package chess;
+
+import org.junit.jupiter.api.Test;
+import passoff.chess.TestUtilities;
+
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Perft counts for standard test positions. This game has no castling or en passant, so
+ * every position and depth here was picked so that neither rule could come up; the counts
+ * are the published ones, minus the published number of en passant captures where the last
+ * ply could include one (the starting position at depth 5, the rook endgame at depth 3).
+ */
+public class PerftTests {
+
+    private static ChessGame loadGame(String boardText, ChessGame.TeamColor turn) {
+        ChessGame game = new ChessGame();
+        game.setBoard(TestUtilities.loadBoard(boardText));
+        game.setTeamTurn(turn);
+        return game;
+    }
+
+    private static void assertPerft(ChessGame game, long[] expected) {
+        ChessBoard original = game.getBoard().clone();
+        for (int depth = 1; depth <= expected.length; depth++) {
+            assertEquals(expected[depth - 1], Perft.perft(game, depth), "Wrong perft count at depth " + depth);
+        }
+        assertEquals(original, game.getBoard(), "Perft did not restore the board");
+    }
+
+    @Test
+    void testStartingPosition() {
+        assertPerft(new ChessGame(), new long[] {20, 400, 8_902, 197_281, 4_865_609 - 258});
+    }
+
+    @Test
+    void testRookAndPawnEndgame() {
+        ChessGame game = loadGame("""
+                | | | | | | | | |
+                | | |p| | | | | |
+                | | | |p| | | | |
+                |K|P| | | | | |r|
+                | |R| | | |p| |k|
+                | | | | | | | | |
+                | | | | |P| |P| |
+                | | | | | | | | |
+                """, ChessGame.TeamColor.WHITE);
+        assertPerft(game, new long[] {14, 191, 2_812 - 2});
+    }
+
+    @Test
+    void testMiddlegame() {
+        ChessGame game = loadGame("""
+                |r| | | | |r|k| |
+                | |p|p| |q|p|p|p|
+                |p| |n|p| |n| | |
+                | | |b| |p| |B| |
+                | | |B| |P| |b| |
+                |P| |N|P| |N| | |
+                | |P|P| |Q|P|P|P|
+                |R| | | | |R|K| |
+                """, ChessGame.TeamColor.WHITE);
+        assertPerft(game, new long[] {46, 2_079, 89_890});
+    }
+
+    @Test
+    void testPromotions() {
+        ChessGame game = loadGame("""
+                |n| |n| | | | | |
+                |P|P|P|k| | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | |K|p|p|p|
+                | | | | | |N| |N|
+                """, ChessGame.TeamColor.BLACK);
+        assertPerft(game, new long[] {24, 496, 9_483, 182_838});
+    }
+
+    @Test
+    void testParallelMatchesPublishedCounts() {
+        ChessGame game = new ChessGame();
+        ChessBoard original = game.getBoard().clone();
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            assertEquals(20, Perft.parallelPerft(game, 1, pool));
+            assertEquals(197_281, Perft.parallelPerft(game, 4, pool));
+            assertEquals(4_865_609 - 258, Perft.parallelPerft(game, 5, pool));
+        } finally {
+            pool.shutdown();
+        }
+        assertEquals(original, game.getBoard(), "Parallel perft changed the board");
+        assertEquals(0, game.getUndoCount());
+    }
+}
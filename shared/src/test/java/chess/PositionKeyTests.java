@@ -0,0 +1,71 @@
+package chess;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PositionKeyTests {
+
+    private static ChessMove move(int startRow, int startCol, int endRow, int endCol) {
+        return new ChessMove(new ChessPosition(startRow, startCol), new ChessPosition(endRow, endCol), null);
+    }
+
+    @Test
+    void testEmptyAndStartingBoards() {
+        ChessBoard empty = new ChessBoard();
+        ChessBoard start = new ChessBoard();
+        start.resetBoard();
+
+        assertEquals(0L, empty.getPositionKey());
+        assertNotEquals(empty.getPositionKey(), start.getPositionKey());
+        assertEquals(start.getPositionKey(), new ChessGame().getBoard().getPositionKey());
+    }
+
+    @Test
+    void testSideToMoveChangesKey() {
+        ChessGame white = new ChessGame();
+        ChessGame black = new ChessGame();
+        black.setTeamTurn(ChessGame.TeamColor.BLACK);
+
+        assertEquals(white.getBoard().getPositionKey(), black.getBoard().getPositionKey());
+        assertNotEquals(white.getPositionKey(), black.getPositionKey());
+    }
+
+    @Test
+    void testTranspositionsShareKey() throws InvalidMoveException {
+        ChessGame first = new ChessGame();
+        first.makeMove(move(1, 2, 3, 3));
+        first.makeMove(move(8, 2, 6, 3));
+        first.makeMove(move(1, 7, 3, 6));
+
+        ChessGame second = new ChessGame();
+        second.makeMove(move(1, 7, 3, 6));
+        second.makeMove(move(8, 2, 6, 3));
+        second.makeMove(move(1, 2, 3, 3));
+
+        assertEquals(first.getPositionKey(), second.getPositionKey());
+        assertEquals(first, second);
+    }
+
+    @Test
+    void testIncrementalKeyMatchesRebuiltKey() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        game.makeMove(move(2, 5, 4, 5));
+        game.makeMove(move(7, 4, 5, 4));
+        game.makeMove(move(4, 5, 5, 4));
+
+        ChessBoard rebuilt = new ChessBoard();
+        rebuilt.setBoard(game.getBoard().clone().getBoard());
+        assertEquals(rebuilt.getPositionKey(), game.getBoard().getPositionKey());
+
+        game.undoMove();
+        ChessBoard beforeCapture = new ChessGame().getBoard();
+        beforeCapture.addPiece(new ChessPosition(2, 5), null);
+        beforeCapture.addPiece(new ChessPosition(4, 5),
+                new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN));
+        beforeCapture.addPiece(new ChessPosition(7, 4), null);
+        beforeCapture.addPiece(new ChessPosition(5, 4),
+                new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.PAWN));
+        assertEquals(beforeCapture.getPositionKey(), game.getBoard().getPositionKey());
+    }
+}
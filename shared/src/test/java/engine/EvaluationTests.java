@@ -0,0 +1,73 @@
+package engine;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPiece;
+import chess.ChessPosition;
+import chess.PieceSquareTables;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EvaluationTests {
+
+    @Test
+    void testStartingPositionIsBalanced() {
+        ChessBoard board = new ChessGame().getBoard();
+        assertEquals(0, Evaluation.evaluate(board, ChessGame.TeamColor.WHITE));
+        assertEquals(PieceSquareTables.MAX_PHASE, board.getPhase());
+    }
+
+    @Test
+    void testMaterialAdvantage() {
+        ChessBoard board = new ChessBoard();
+        board.resetBoard();
+        board.addPiece(new ChessPosition(8, 4), null);
+        assertTrue(Evaluation.evaluate(board, ChessGame.TeamColor.WHITE) > 800);
+        assertEquals(-Evaluation.evaluate(board, ChessGame.TeamColor.WHITE),
+                Evaluation.evaluate(board, ChessGame.TeamColor.BLACK));
+        assertEquals(PieceSquareTables.MAX_PHASE - 4, board.getPhase());
+    }
+
+    @Test
+    void testIncrementalScoreMatchesRecountThroughRandomGames() {
+        Random random = new Random(16);
+        for (int gameNumber = 0; gameNumber < 20; gameNumber++) {
+            ChessGame game = new ChessGame();
+            for (int ply = 0; ply < 120; ply++) {
+                List<ChessMove> moves = new ArrayList<>(game.legalMoves(game.getTeamTurn()));
+                if (moves.isEmpty()) {
+                    break;
+                }
+                game.doMove(moves.get(random.nextInt(moves.size())));
+                assertEquals(Evaluation.evaluateFromScratch(game.getBoard(), ChessGame.TeamColor.WHITE),
+                        Evaluation.evaluate(game.getBoard(), ChessGame.TeamColor.WHITE));
+            }
+            while (game.getUndoCount() > 0) {
+                game.undoMove();
+            }
+            assertEquals(0, Evaluation.evaluate(game.getBoard(), ChessGame.TeamColor.WHITE));
+        }
+    }
+
+    @Test
+    void testScoreSurvivesCloneAndPromotion() {
+        ChessBoard board = new ChessBoard();
+        board.addPiece(new ChessPosition(1, 1), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KING));
+        board.addPiece(new ChessPosition(8, 8), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KING));
+        board.addPiece(new ChessPosition(7, 2), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN));
+        int before = Evaluation.evaluate(board, ChessGame.TeamColor.WHITE);
+
+        ChessBoard promoted = board.clone();
+        promoted.doMove(new ChessMove(new ChessPosition(7, 2), new ChessPosition(8, 2), ChessPiece.PieceType.QUEEN));
+        assertTrue(Evaluation.evaluate(promoted, ChessGame.TeamColor.WHITE) > before + 500);
+        assertEquals(Evaluation.evaluateFromScratch(promoted, ChessGame.TeamColor.WHITE),
+                Evaluation.evaluate(promoted, ChessGame.TeamColor.WHITE));
+        assertEquals(before, Evaluation.evaluate(board, ChessGame.TeamColor.WHITE));
+    }
+}
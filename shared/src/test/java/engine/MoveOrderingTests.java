@@ -0,0 +1,93 @@
+package engine;
+
+import chess.Bitboards;
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessPiece;
+import chess.ChessPosition;
+import chess.Move;
+import chess.MoveGenerator;
+import chess.MoveList;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MoveOrderingTests {
+
+    private ChessBoard board;
+    private MoveList moves;
+    private MoveOrdering ordering;
+
+    @BeforeEach
+    void setUp() {
+        // White can take the rook with the pawn or the queen, or take a pawn with the queen
+        board = new ChessBoard();
+        place(1, 5, ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KING);
+        place(5, 1, ChessGame.TeamColor.WHITE, ChessPiece.PieceType.QUEEN);
+        place(4, 2, ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN);
+        place(8, 8, ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KING);
+        place(5, 3, ChessGame.TeamColor.BLACK, ChessPiece.PieceType.ROOK);
+        place(6, 1, ChessGame.TeamColor.BLACK, ChessPiece.PieceType.PAWN);
+        moves = new MoveList();
+        new MoveGenerator(board, ChessGame.TeamColor.WHITE).generate(moves);
+        ordering = new MoveOrdering(8);
+        ordering.newSearch();
+    }
+
+    @Test
+    void testCapturesByVictimThenAttacker() {
+        ordering.score(moves, board, Move.NONE, 0);
+        assertEquals(move(4, 2, 5, 3, true), ordering.next(moves, 0, 0));
+        assertEquals(move(5, 1, 5, 3, true), ordering.next(moves, 1, 0));
+        assertEquals(move(5, 1, 6, 1, true), ordering.next(moves, 2, 0));
+        for (int i = 3; i < moves.size(); i++) {
+            assertFalse(Move.isCapture(ordering.next(moves, i, 0)));
+        }
+    }
+
+    @Test
+    void testTableMoveFirst() {
+        int quiet = move(1, 5, 2, 5, false);
+        ordering.score(moves, board, quiet, 0);
+        assertEquals(quiet, ordering.next(moves, 0, 0));
+        assertEquals(move(4, 2, 5, 3, true), ordering.next(moves, 1, 0));
+    }
+
+    @Test
+    void testKillerFollowsCapturesAtItsPly() {
+        int quiet = move(1, 5, 2, 5, false);
+        ordering.cutoff(quiet, board, 4, 3);
+
+        ordering.score(moves, board, Move.NONE, 3);
+        for (int i = 0; i < 3; i++) {
+            assertTrue(Move.isCapture(ordering.next(moves, i, 3)));
+        }
+        assertEquals(quiet, ordering.next(moves, 3, 3));
+
+        // a search that starts over forgets the killer but keeps some history
+        ordering.newSearch();
+        ordering.score(moves, board, Move.NONE, 3);
+        for (int i = 0; i < 3; i++) {
+            ordering.next(moves, i, 3);
+        }
+        assertEquals(quiet, ordering.next(moves, 3, 3));
+    }
+
+    @Test
+    void testCapturesAreNotKillers() {
+        int capture = move(5, 1, 6, 1, true);
+        ordering.cutoff(capture, board, 4, 2);
+        ordering.score(moves, board, Move.NONE, 2);
+        assertEquals(move(4, 2, 5, 3, true), ordering.next(moves, 0, 2));
+    }
+
+    private void place(int row, int column, ChessGame.TeamColor color, ChessPiece.PieceType type) {
+        board.addPiece(new ChessPosition(row, column), new ChessPiece(color, type));
+    }
+
+    private static int move(int fromRow, int fromColumn, int toRow, int toColumn, boolean capture) {
+        return Move.encode(Bitboards.square(fromRow, fromColumn), Bitboards.square(toRow, toColumn), null,
+                capture ? Move.CAPTURE : 0);
+    }
+}
@@ -0,0 +1,138 @@
+package engine;
+
+import chess.Bitboards;
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessPiece;
+import chess.ChessPosition;
+import chess.Move;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class OpeningBookTests {
+
+    @TempDir
+    Path directory;
+
+    private static final int E2E4 = move(2, 5, 4, 5);
+    private static final int D2D4 = move(2, 4, 4, 4);
+    private static final int E7E5 = move(7, 5, 5, 5);
+
+    @Test
+    void testPolyglotKeys() {
+        // Keys published with the Polyglot book format
+        ChessGame game = new ChessGame();
+        assertEquals(0x463b96181691fc9cL, OpeningBook.positionKey(game));
+        game.doMove(E2E4);
+        assertEquals(0x823c9b50fd114196L, OpeningBook.positionKey(game));
+        game.doMove(move(7, 4, 5, 4));
+        assertEquals(0x0756b94461c50fb0L, OpeningBook.positionKey(game));
+        game.doMove(move(4, 5, 5, 5));
+        assertEquals(0x662fafb965db29d4L, OpeningBook.positionKey(game));
+        // f7f5 leaves an en passant capture, which this game doesn't have, so its key isn't checked
+        game.doMove(move(7, 6, 5, 6));
+        game.doMove(move(1, 5, 2, 5));
+        assertEquals(0x652a607ca3f242c1L, OpeningBook.positionKey(game));
+        game.doMove(move(8, 5, 7, 6));
+        assertEquals(0x00fdd303c946bdd9L, OpeningBook.positionKey(game));
+    }
+
+    @Test
+    void testBestMoveAfterBookMoves() throws IOException {
+        ChessGame game = new ChessGame();
+        long start = OpeningBook.positionKey(game);
+        game.doMove(E2E4);
+        long afterE4 = OpeningBook.positionKey(game);
+
+        List<OpeningBook.Entry> entries = new ArrayList<>();
+        entries.add(new OpeningBook.Entry(afterE4, E7E5, 10));
+        entries.add(new OpeningBook.Entry(start, D2D4, 30));
+        entries.add(new OpeningBook.Entry(start, E2E4, 20));
+        // duplicates are merged, so e2e4 ends up ahead of d2d4
+        entries.add(new OpeningBook.Entry(start, E2E4, 20));
+        OpeningBook book = write(entries);
+
+        assertEquals(3, book.entryCount());
+        assertEquals(E7E5, book.bestMove(game));
+        game.undoMove();
+        assertEquals(E2E4, book.bestMove(game));
+        game.doMove(D2D4);
+        assertEquals(Move.NONE, book.bestMove(game));
+    }
+
+    @Test
+    void testPickMoveFollowsWeights() throws IOException {
+        ChessGame game = new ChessGame();
+        OpeningBook book = write(List.of(
+                new OpeningBook.Entry(OpeningBook.positionKey(game), E2E4, 3),
+                new OpeningBook.Entry(OpeningBook.positionKey(game), D2D4, 1)));
+
+        Random random = new Random(18);
+        int e4Count = 0;
+        for (int i = 0; i < 4000; i++) {
+            int move = book.pickMove(game, random);
+            assertTrue(move == E2E4 || move == D2D4);
+            if (move == E2E4) {
+                e4Count++;
+            }
+        }
+        assertTrue(e4Count > 2800 && e4Count < 3200, "e2e4 picked " + e4Count + " times of 4000");
+    }
+
+    @Test
+    void testIllegalBookMovesAreSkipped() throws IOException {
+        ChessGame game = new ChessGame();
+        OpeningBook book = write(List.of(
+                new OpeningBook.Entry(OpeningBook.positionKey(game), move(2, 5, 5, 5), OpeningBook.MAX_WEIGHT),
+                new OpeningBook.Entry(OpeningBook.positionKey(game), D2D4, 1)));
+
+        assertEquals(D2D4, book.bestMove(game));
+        assertEquals(D2D4, book.pickMove(game, new Random(1)));
+    }
+
+    @Test
+    void testPromotionAndCaptureFlag() throws IOException {
+        ChessBoard board = new ChessBoard();
+        board.addPiece(new ChessPosition(1, 1), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KING));
+        board.addPiece(new ChessPosition(8, 8), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KING));
+        board.addPiece(new ChessPosition(7, 2), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN));
+        board.addPiece(new ChessPosition(8, 3), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.ROOK));
+        ChessGame game = new ChessGame();
+        game.setBoard(board);
+        int promotion = Move.encode(Bitboards.square(7, 2), Bitboards.square(8, 3), ChessPiece.PieceType.KNIGHT,
+                Move.CAPTURE);
+        OpeningBook book = write(List.of(new OpeningBook.Entry(OpeningBook.positionKey(game), promotion, 1)));
+
+        assertEquals(promotion, book.bestMove(game));
+    }
+
+    @Test
+    void testEmptyAndMalformedFiles() throws IOException {
+        OpeningBook empty = write(List.of());
+        assertEquals(0, empty.entryCount());
+        assertEquals(Move.NONE, empty.bestMove(new ChessGame()));
+
+        Path malformed = directory.resolve("malformed.bin");
+        Files.write(malformed, new byte[OpeningBook.ENTRY_BYTES + 1]);
+        assertThrows(IllegalArgumentException.class, () -> new OpeningBook(malformed));
+    }
+
+    private OpeningBook write(List<OpeningBook.Entry> entries) throws IOException {
+        Path path = directory.resolve("book.bin");
+        OpeningBook.write(path, entries);
+        return new OpeningBook(path);
+    }
+
+    private static int move(int fromRow, int fromColumn, int toRow, int toColumn) {
+        return Move.encode(Bitboards.square(fromRow, fromColumn), Bitboards.square(toRow, toColumn), null, 0);
+    }
+}
@@ -0,0 +1,167 @@
+package engine;
+
+import chess.Bitbases;
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPosition;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import passoff.chess.TestUtilities;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SearchTests {
+
+    private static ChessGame loadGame(String boardText, ChessGame.TeamColor turn) {
+        ChessGame game = new ChessGame();
+        game.setBoard(TestUtilities.loadBoard(boardText));
+        game.setTeamTurn(turn);
+        return game;
+    }
+
+    @Test
+    void testFindsMateInOne() {
+        ChessGame game = loadGame("""
+                | | | | | | |k| |
+                | | | | | |p|p|p|
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                |R| | | | | |K| |
+                """, ChessGame.TeamColor.WHITE);
+        SearchResult result = new Search(game).search(SearchLimits.ofDepth(4));
+        assertEquals(new ChessMove(new ChessPosition(1, 1), new ChessPosition(8, 1), null), result.bestMove());
+        assertEquals(Search.MATE - 1, result.score());
+        assertTrue(result.isMateScore());
+    }
+
+    @Test
+    void testTakesHangingQueen() {
+        ChessGame game = loadGame("""
+                | | | | |k| | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | |q| | | | |
+                | | | | | | | | |
+                | | |N| | | | | |
+                | | | | | | | | |
+                | | | | |K| | | |
+                """, ChessGame.TeamColor.WHITE);
+        SearchResult result = new Search(game).search(SearchLimits.ofDepth(3));
+        assertEquals(new ChessMove(new ChessPosition(3, 3), new ChessPosition(5, 4), null), result.bestMove());
+        assertTrue(result.score() > 0);
+    }
+
+    @Test
+    void testNoLegalMove() {
+        ChessGame game = loadGame("""
+                |k| | | | | | | |
+                | | |Q| | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | |K|
+                """, ChessGame.TeamColor.BLACK);
+        SearchResult result = new Search(game).search(SearchLimits.ofDepth(3));
+        assertNull(result.bestMove());
+        assertEquals(0, result.score());
+    }
+
+    @Test
+    void testLeavesGameUntouched() {
+        ChessGame game = new ChessGame();
+        ChessGame original = new ChessGame();
+        new Search(game).search(SearchLimits.ofDepth(3));
+        assertEquals(original, game);
+        assertEquals(0, game.getUndoCount());
+    }
+
+    @Test
+    void testStopsAtNodeLimit() {
+        SearchResult result = new Search(new ChessGame()).search(SearchLimits.ofNodes(5_000));
+        assertNotNull(result.bestMove());
+        assertTrue(result.depth() >= 1);
+        assertTrue(result.nodes() <= 5_000 || result.depth() == 1);
+    }
+
+    @Test
+    void testStopsAtTimeLimit() {
+        long start = System.nanoTime();
+        SearchResult result = new Search(new ChessGame()).search(SearchLimits.ofMillis(100));
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        assertNotNull(result.bestMove());
+        assertTrue(elapsedMillis < 1_000, "search took " + elapsedMillis + "ms");
+    }
+
+    @Test
+    void testParallelSearchFindsMate() {
+        ChessGame game = loadGame("""
+                | | | | | | |k| |
+                | | | | | |p|p|p|
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                |R| | | | | |K| |
+                """, ChessGame.TeamColor.WHITE);
+        SearchResult result = new Search(game).search(SearchLimits.ofDepth(4).withThreads(4));
+        assertEquals(new ChessMove(new ChessPosition(1, 1), new ChessPosition(8, 1), null), result.bestMove());
+        assertEquals(Search.MATE - 1, result.score());
+    }
+
+    @Test
+    void testInterruptedParallelSearchKeepsResult() {
+        // joining the helpers is interrupted straight away, so they are cancelled instead
+        Thread.currentThread().interrupt();
+        try {
+            SearchResult result = new Search(new ChessGame()).search(SearchLimits.ofDepth(3).withThreads(4));
+            assertNotNull(result.bestMove());
+            assertEquals(3, result.depth());
+            assertTrue(Thread.currentThread().isInterrupted());
+        } finally {
+            Thread.interrupted();
+        }
+    }
+
+    @Test
+    void testParallelSearchStopsAtTimeLimit() {
+        long start = System.nanoTime();
+        SearchResult result = new Search(new ChessGame()).search(SearchLimits.ofMillis(100).withThreads(4));
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        assertNotNull(result.bestMove());
+        assertTrue(result.depth() >= 1);
+        assertTrue(elapsedMillis < 1_000, "search took " + elapsedMillis + "ms");
+    }
+
+    @Test
+    void testKeepsBitbaseWin(@TempDir Path directory) throws IOException {
+        // Pushing the pawn at once lets the black king in front of it and draws
+        ChessGame game = loadGame("""
+                | | | | | | |k| |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | |P| | | | |
+                | | | | | | | | |
+                | | |K| | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                """, ChessGame.TeamColor.WHITE);
+        Bitbases.install(Bitbases.openOrGenerate(directory));
+        try {
+            assertEquals(Bitbases.Outcome.WIN, game.endgameOutcome());
+            SearchResult result = new Search(game).search(SearchLimits.ofDepth(4));
+            game.doMove(result.bestMove());
+            assertEquals(Bitbases.Outcome.LOSS, game.endgameOutcome());
+        } finally {
+            Bitbases.install(null);
+        }
+    }
+}
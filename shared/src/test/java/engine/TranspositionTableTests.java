@@ -0,0 +1,98 @@
+package engine;
+
+import chess.ChessGame;
+import chess.Move;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TranspositionTableTests {
+
+    private static final int MOVE = Move.encode(12, 28, null, Move.CAPTURE);
+
+    @Test
+    void testStoreAndProbe() {
+        TranspositionTable table = new TranspositionTable(1);
+        long key = 0x1234_5678_9ABC_DEF0L;
+        assertEquals(TranspositionTable.MISS, table.probe(key));
+
+        table.store(key, MOVE, 7, TranspositionTable.LOWER, -250);
+        long entry = table.probe(key);
+        assertEquals(MOVE, TranspositionTable.move(entry));
+        assertEquals(7, TranspositionTable.depth(entry));
+        assertEquals(TranspositionTable.LOWER, TranspositionTable.bound(entry));
+        assertEquals(-250, TranspositionTable.score(entry, 3));
+    }
+
+    @Test
+    void testMateScoresAreStoredFromTheEntry() {
+        TranspositionTable table = new TranspositionTable(1);
+        long key = 42L;
+        // mate 5 plies from the root, found at ply 2, so 3 plies from the entry
+        table.store(key, MOVE, 4, TranspositionTable.EXACT, TranspositionTable.toStored(Search.MATE - 5, 2));
+        assertEquals(Search.MATE - 3, TranspositionTable.score(table.probe(key), 0));
+        assertEquals(Search.MATE - 7, TranspositionTable.score(table.probe(key), 4));
+    }
+
+    @Test
+    void testBucketReplacement() {
+        TranspositionTable table = new TranspositionTable(1);
+        long buckets = table.capacity() / 2;
+        long deep = 5L;
+        long shallow = deep + buckets;
+        long newer = deep + 2 * buckets;
+
+        table.store(deep, MOVE, 10, TranspositionTable.EXACT, 1);
+        table.store(shallow, MOVE, 2, TranspositionTable.EXACT, 2);
+        assertEquals(10, TranspositionTable.depth(table.probe(deep)));
+        assertEquals(2, TranspositionTable.depth(table.probe(shallow)));
+
+        // a shallow result goes in the always-replace entry and keeps the deep one
+        table.store(newer, MOVE, 3, TranspositionTable.EXACT, 3);
+        assertNotEquals(TranspositionTable.MISS, table.probe(deep));
+        assertEquals(TranspositionTable.MISS, table.probe(shallow));
+        assertNotEquals(TranspositionTable.MISS, table.probe(newer));
+
+        // results from older searches give way to newer ones
+        table.newSearch();
+        table.store(shallow, MOVE, 1, TranspositionTable.EXACT, 2);
+        assertEquals(TranspositionTable.MISS, table.probe(deep));
+        assertNotEquals(TranspositionTable.MISS, table.probe(shallow));
+    }
+
+    @Test
+    void testStatsAndClear() {
+        TranspositionTable table = new TranspositionTable(1);
+        long buckets = table.capacity() / 2;
+        table.store(1L, MOVE, 1, TranspositionTable.UPPER, 0);
+        table.probe(1L);
+        table.probe(1L + buckets);
+        table.probe(2L);
+
+        TranspositionTable.Stats stats = table.stats();
+        assertEquals(3, stats.probes());
+        assertEquals(1, stats.hits());
+        assertEquals(1, stats.collisions());
+        assertEquals(1, stats.stores());
+
+        table.clear();
+        assertEquals(TranspositionTable.MISS, table.probe(1L));
+        assertEquals(1, table.stats().probes());
+    }
+
+    @Test
+    void testInvalidSize() {
+        assertThrows(IllegalArgumentException.class, () -> new TranspositionTable(0));
+        assertThrows(IllegalArgumentException.class, () -> new TranspositionTable(4096));
+    }
+
+    @Test
+    void testSharedTableGivesSameMove() {
+        TranspositionTable table = new TranspositionTable(4);
+        SearchResult first = new Search(new ChessGame(), table).search(SearchLimits.ofDepth(4));
+        SearchResult second = new Search(new ChessGame(), table).search(SearchLimits.ofDepth(4));
+        assertEquals(first.score(), second.score());
+        assertTrue(second.nodes() < first.nodes());
+        assertTrue(table.stats().hits() > 0);
+    }
+}